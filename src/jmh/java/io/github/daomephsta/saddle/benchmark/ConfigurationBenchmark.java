@@ -0,0 +1,42 @@
+package io.github.daomephsta.saddle.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.github.daomephsta.saddle.SaddleConfiguration;
+
+/**
+ * Parsing a saddle-config.json that includes every class of a suite by name
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConfigurationBenchmark
+{
+    @Param({"100", "1000", "10000"})
+    public int classCount;
+
+    private byte[] configuration;
+
+    @Setup
+    public void setup()
+    {
+        configuration = SyntheticSuite.generate(classCount).toConfiguration().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public SaddleConfiguration parse()
+    {
+        return SaddleConfiguration.from(new ByteArrayInputStream(configuration));
+    }
+}
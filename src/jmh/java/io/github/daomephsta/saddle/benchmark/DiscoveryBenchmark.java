@@ -0,0 +1,98 @@
+package io.github.daomephsta.saddle.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+import io.github.daomephsta.saddle.engine.SaddleTestEngine;
+import io.github.daomephsta.saddle.engine.TestClassMetadataCache;
+
+/**
+ * Discovery of one load phase, including pruning the tests of other phases
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DiscoveryBenchmark
+{
+    @Param({"100", "1000", "10000"})
+    public int classCount;
+
+    private LauncherDiscoveryRequest discoveryRequest;
+    private TestClassMetadataCache warmMetadataCache;
+
+    @Setup
+    public void setup()
+    {
+        SyntheticSuite suite = SyntheticSuite.generate(classCount);
+        discoveryRequest = LauncherDiscoveryRequestBuilder.request()
+            .selectors(suite.getTestClasses().stream()
+                .map(DiscoverySelectors::selectClass)
+                .toArray(DiscoverySelector[]::new))
+            .build();
+        warmMetadataCache = new TestClassMetadataCache();
+        new SaddleTestEngine(LoadPhase.PRE_INIT, warmMetadataCache).discover(discoveryRequest, UniqueId.forEngine(SaddleTestEngine.ID));
+    }
+
+    /**
+     * Discovery of the first phase, which reflects on every test class
+     */
+    @Benchmark
+    public TestDescriptor discoverColdMetadataCache()
+    {
+        return new SaddleTestEngine(LoadPhase.INIT).discover(discoveryRequest, UniqueId.forEngine(SaddleTestEngine.ID));
+    }
+
+    /**
+     * Discovery of later phases, which reuse the metadata of earlier ones
+     */
+    @Benchmark
+    public TestDescriptor discoverWarmMetadataCache()
+    {
+        return new SaddleTestEngine(LoadPhase.INIT, warmMetadataCache).discover(discoveryRequest, UniqueId.forEngine(SaddleTestEngine.ID));
+    }
+
+    /**
+     * Discovery of every phase, each scanning the configured selectors, as Saddle does by default
+     */
+    @Benchmark
+    public void discoverEachPhase(Blackhole blackhole)
+    {
+        TestClassMetadataCache metadataCache = new TestClassMetadataCache();
+        for (LoadPhase loadPhase : LoadPhase.values())
+            blackhole.consume(new SaddleTestEngine(loadPhase, metadataCache).discover(discoveryRequest, UniqueId.forEngine(SaddleTestEngine.ID)));
+    }
+
+    /**
+     * Discovery of every phase from one scan, as with {@code -Dsaddle.singlePassDiscovery=true}
+     */
+    @Benchmark
+    public void discoverSinglePass(Blackhole blackhole)
+    {
+        TestClassMetadataCache metadataCache = new TestClassMetadataCache();
+        Map<LoadPhase, List<TestDescriptor>> testsByPhase = SaddleTestEngine.discoverByLoadPhase(discoveryRequest, metadataCache);
+        for (LoadPhase loadPhase : LoadPhase.values())
+        {
+            SaddleTestEngine engine = new SaddleTestEngine(loadPhase, metadataCache);
+            engine.setScannedTests(testsByPhase.get(loadPhase));
+            blackhole.consume(engine.discover(discoveryRequest, UniqueId.forEngine(SaddleTestEngine.ID)));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.daomephsta.saddle.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.github.daomephsta.saddle.SaddleTestExecutionLogger;
+import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+import io.github.daomephsta.saddle.engine.SaddleTestEngine;
+
+/**
+ * Replays the start and finish events of every test and container in a suite through a {@link SaddleTestExecutionLogger}, 
+ * including waiting for its logging thread to drain. The logger discards records below ERROR, so this measures 
+ * Saddle's bookkeeping and hand-off rather than appender I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExecutionLoggerBenchmark
+{
+    @Param({"100", "1000", "10000"})
+    public int classCount;
+
+    private TestPlan testPlan;
+    private final List<TestIdentifier> identifiers = new ArrayList<>();
+
+    @Setup
+    public void setup()
+    {
+        SyntheticSuite suite = SyntheticSuite.generate(classCount);
+        TestDescriptor engineDescriptor = new SaddleTestEngine(LoadPhase.INIT).discover(LauncherDiscoveryRequestBuilder.request()
+            .selectors(suite.getTestClasses().stream()
+                .map(DiscoverySelectors::selectClass)
+                .toArray(DiscoverySelector[]::new))
+            .build(), UniqueId.forEngine(SaddleTestEngine.ID));
+        testPlan = TestPlan.from(Collections.singleton(engineDescriptor));
+        // Parents before children, as during execution
+        engineDescriptor.accept(descriptor -> identifiers.add(TestIdentifier.from(descriptor)));
+    }
+
+    @Benchmark
+    public void logExecution()
+    {
+        SaddleTestExecutionLogger logger = new SaddleTestExecutionLogger(LogManager.getLogger("SaddleBenchmark"), Level.INFO);
+        logger.testPlanExecutionStarted(testPlan);
+        for (TestIdentifier identifier : identifiers)
+            logger.executionStarted(identifier);
+        for (int i = identifiers.size() - 1; i >= 0; i--)
+            logger.executionFinished(identifiers.get(i), TestExecutionResult.successful());
+        logger.testPlanExecutionFinished(testPlan);
+    }
+}
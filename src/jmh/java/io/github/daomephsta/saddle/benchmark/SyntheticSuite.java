@@ -0,0 +1,120 @@
+package io.github.daomephsta.saddle.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import io.github.daomephsta.saddle.engine.SaddleTest;
+import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+
+/**
+ * A suite of generated test classes, each with {@link #METHODS_PER_CLASS} empty {@link SaddleTest} methods 
+ * spread round robin across the load phases, so every phase discovers about the same number of tests.
+ */
+public class SyntheticSuite
+{
+    public static final int METHODS_PER_CLASS = 5;
+    private static final String PACKAGE = "io.github.daomephsta.saddle.benchmark.synthetic";
+    private static final String SADDLE_TEST_DESCRIPTOR = Type.getDescriptor(SaddleTest.class),
+                                LOAD_PHASE_DESCRIPTOR = Type.getDescriptor(LoadPhase.class);
+
+    private final List<Class<?>> testClasses;
+
+    private SyntheticSuite(List<Class<?>> testClasses)
+    {
+        this.testClasses = testClasses;
+    }
+
+    public static SyntheticSuite generate(int classCount)
+    {
+        SyntheticClassLoader classLoader = new SyntheticClassLoader(SyntheticSuite.class.getClassLoader());
+        List<Class<?>> testClasses = new ArrayList<>(classCount);
+        for (int i = 0; i < classCount; i++)
+        {
+            String className = PACKAGE + ".SyntheticTest" + i;
+            testClasses.add(classLoader.define(className, generateClass(className, i)));
+        }
+        return new SyntheticSuite(testClasses);
+    }
+
+    private static byte[] generateClass(String className, int index)
+    {
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        classWriter.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, className.replace('.', '/'), null, 
+            "java/lang/Object", null);
+        MethodVisitor constructor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+        LoadPhase[] loadPhases = LoadPhase.values();
+        for (int i = 0; i < METHODS_PER_CLASS; i++)
+        {
+            MethodVisitor method = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "test" + i, "()V", null, null);
+            AnnotationVisitor annotation = method.visitAnnotation(SADDLE_TEST_DESCRIPTOR, true);
+            annotation.visitEnum("loadPhase", LOAD_PHASE_DESCRIPTOR, loadPhases[(index + i) % loadPhases.length].name());
+            annotation.visitEnd();
+            method.visitCode();
+            method.visitInsn(Opcodes.RETURN);
+            method.visitMaxs(0, 0);
+            method.visitEnd();
+        }
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    public List<Class<?>> getTestClasses()
+    {
+        return testClasses;
+    }
+
+    /**
+     * @return a saddle-config.json that includes every class of this suite by name in every load phase
+     */
+    public String toConfiguration()
+    {
+        JsonArray includes = new JsonArray();
+        for (Class<?> testClass : testClasses)
+        {
+            JsonObject include = new JsonObject();
+            include.addProperty("class", testClass.getName());
+            includes.add(include);
+        }
+        JsonObject exclude = new JsonObject();
+        exclude.addProperty("class_pattern", ".*Slow.*");
+        JsonArray excludes = new JsonArray();
+        excludes.add(exclude);
+        JsonObject configuration = new JsonObject();
+        for (LoadPhase loadPhase : LoadPhase.values())
+        {
+            JsonObject phaseConfiguration = new JsonObject();
+            phaseConfiguration.add("include", includes);
+            phaseConfiguration.add("exclude", excludes);
+            configuration.add(loadPhase.name().toLowerCase(), phaseConfiguration);
+        }
+        return configuration.toString();
+    }
+
+    private static class SyntheticClassLoader extends ClassLoader
+    {
+        SyntheticClassLoader(ClassLoader parent)
+        {
+            super(parent);
+        }
+
+        Class<?> define(String className, byte[] bytes)
+        {
+            return defineClass(className, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.daomephsta.saddle;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Enumeration;
+
+/**
+ * Loads classes from its own URLs before delegating to its parent, so that test classes can be reloaded 
+ * by creating a new instance. Saddle, JUnit and JDK classes always come from the parent, so that 
+ * annotations and engine classes are shared with the rest of the game.
+ */
+class ChildFirstClassLoader extends URLClassLoader
+{
+    private static final String[] PARENT_FIRST_PACKAGES = {"java.", "javax.", "sun.", "org.junit.", 
+        "org.opentest4j.", "org.apiguardian.", "io.github.daomephsta.saddle."};
+    
+    static
+    {
+        registerAsParallelCapable();
+    }
+
+    ChildFirstClassLoader(URL[] urls, ClassLoader parent)
+    {
+        super(urls, parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException
+    {
+        for (String parentFirstPackage : PARENT_FIRST_PACKAGES)
+        {
+            if (name.startsWith(parentFirstPackage))
+                return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name))
+        {
+            Class<?> loadedClass = findLoadedClass(name);
+            if (loadedClass == null)
+            {
+                try
+                {
+                    loadedClass = findClass(name);
+                }
+                catch (ClassNotFoundException e)
+                {
+                    return super.loadClass(name, resolve);
+                }
+            }
+            if (resolve)
+                resolveClass(loadedClass);
+            return loadedClass;
+        }
+    }
+
+    @Override
+    public URL getResource(String name)
+    {
+        URL resource = findResource(name);
+        return resource != null ? resource : super.getResource(name);
+    }
+
+    /**
+     * As with {@link #getResource(String)}, resources found in this class loader's URLs hide the parent's, 
+     * so that resources such as the test index aren't also read from the classes this class loader reloads
+     */
+    @Override
+    public Enumeration<URL> getResources(String name) throws IOException
+    {
+        Enumeration<URL> resources = findResources(name);
+        return resources.hasMoreElements() ? resources : super.getResources(name);
+    }
+}
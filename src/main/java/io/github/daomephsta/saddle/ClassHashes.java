@@ -0,0 +1,152 @@
+package io.github.daomephsta.saddle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Hashes the bytecode of classes together with their superclasses and nested classes, caching each hash.
+ * A test's class hash changes when an inherited test, lifecycle method or nested test class changes,
+ * but not when code it merely calls changes, e.g. a helper class or the mod under test.
+ * JDK classes are not hashed, as they don't change between launches of the same JVM.
+ */
+public class ClassHashes
+{
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final ClassLoader classLoader;
+    private final Map<String, String> hashes = new ConcurrentHashMap<>();
+    private final Map<String, ClassBytecode> bytecode = new ConcurrentHashMap<>();
+
+    public ClassHashes(ClassLoader classLoader)
+    {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * @return a hash of the bytecode of {@code className}, its superclasses and its nested classes,
+     * or an empty string if the bytecode of {@code className} can't be found
+     */
+    public String get(String className)
+    {
+        return hashes.computeIfAbsent(className, this::hash);
+    }
+
+    private String hash(String className)
+    {
+        if (read(className.replace('.', '/')) == null)
+            return "";
+        MessageDigest digest = newDigest();
+        // Sorted, so that the hash doesn't depend on the order classes were found in
+        for (String relatedClass : getRelatedClasses(className.replace('.', '/')))
+            digest.update(read(relatedClass).digest);
+        return toHex(digest.digest());
+    }
+
+    private Set<String> getRelatedClasses(String internalName)
+    {
+        Set<String> related = new TreeSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.add(internalName);
+        while (!pending.isEmpty())
+        {
+            String next = pending.remove();
+            ClassBytecode classBytecode = read(next);
+            if (classBytecode == null || !related.add(next))
+                continue;
+            if (classBytecode.superName != null)
+                pending.add(classBytecode.superName);
+            pending.addAll(classBytecode.nestedClasses);
+        }
+        return related;
+    }
+
+    /**
+     * @return the digest, superclass and nested classes of {@code internalName}, or null if it is a JDK class or can't be found
+     */
+    private ClassBytecode read(String internalName)
+    {
+        if (internalName.startsWith("java/"))
+            return null;
+        ClassBytecode classBytecode = bytecode.get(internalName);
+        if (classBytecode != null)
+            return classBytecode;
+        try (InputStream input = classLoader.getResourceAsStream(internalName + ".class"))
+        {
+            if (input == null)
+                return null;
+            ClassReader reader = new ClassReader(input);
+            MessageDigest digest = newDigest();
+            digest.update(reader.b);
+            List<String> nestedClasses = new ArrayList<>();
+            reader.accept(new ClassVisitor(Opcodes.ASM5)
+            {
+                @Override
+                public void visitInnerClass(String name, String outerName, String innerName, int access)
+                {
+                    // Member, local and anonymous classes of this class, but not the classes this class is nested in
+                    if (name.startsWith(internalName + '$'))
+                        nestedClasses.add(name);
+                }
+            }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+            classBytecode = new ClassBytecode(digest.digest(), reader.getSuperName(), nestedClasses);
+            bytecode.put(internalName, classBytecode);
+            return classBytecode;
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Failed to hash " + internalName, e);
+        }
+    }
+
+    private static MessageDigest newDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-1");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new RuntimeException("SHA-1 is unavailable", e);
+        }
+    }
+
+    private static String toHex(byte[] hash)
+    {
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++)
+        {
+            hex[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX_DIGITS[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    private static class ClassBytecode
+    {
+        final byte[] digest;
+        final String superName;
+        final List<String> nestedClasses;
+
+        ClassBytecode(byte[] digest, String superName, List<String> nestedClasses)
+        {
+            this.digest = digest;
+            this.superName = superName;
+            this.nestedClasses = Collections.unmodifiableList(nestedClasses);
+        }
+    }
+}
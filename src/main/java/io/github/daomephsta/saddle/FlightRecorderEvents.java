@@ -0,0 +1,198 @@
+package io.github.daomephsta.saddle;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Saddle's Java Flight Recorder events, in the {@code Saddle} category. Minecraft targets Java 8, 
+ * which has no JFR API, so the events are defined at runtime through {@code jdk.jfr.EventFactory}, reflectively. 
+ * On JVMs without it every event does nothing.
+ */
+class FlightRecorderEvents
+{
+    private static final Logger LOGGER = LogManager.getLogger("Saddle");
+    // Before the event types, which need it to initialise
+    private static final Reflection JFR = Reflection.load();
+    static final EventType DISCOVERY = new EventType("saddle.Discovery", "Saddle Discovery", 
+            "Discovery of the tests of a load phase", 
+            new String[] {"phase", "classes", "tests"}, new Class<?>[] {String.class, long.class, long.class}),
+        EXECUTION = new EventType("saddle.Execution", "Saddle Execution", 
+            "Execution of the tests of a load phase", 
+            new String[] {"phase", "tests"}, new Class<?>[] {String.class, long.class}),
+        TEST = new EventType("saddle.Test", "Saddle Test", 
+            "Execution of a test or test container", 
+            new String[] {"phase", "id", "name", "status"}, new Class<?>[] {String.class, String.class, String.class, String.class});
+    static boolean isAvailable()
+    {
+        return JFR != null;
+    }
+
+    static class EventType
+    {
+        private final Object factory,
+                             eventType;
+
+        private EventType(String name, String label, String description, String[] fieldNames, Class<?>[] fieldTypes)
+        {
+            Object factory = null, 
+                   eventType = null;
+            if (isAvailable())
+            {
+                try
+                {
+                    List<Object> annotations = Arrays.asList(
+                        JFR.newAnnotationElement("Name", name), 
+                        JFR.newAnnotationElement("Label", label), 
+                        JFR.newAnnotationElement("Description", description), 
+                        JFR.newAnnotationElement("Category", new String[] {"Saddle"}));
+                    List<Object> fields = new ArrayList<>();
+                    for (int i = 0; i < fieldNames.length; i++)
+                        fields.add(JFR.valueDescriptor.newInstance(fieldTypes[i], fieldNames[i]));
+                    factory = JFR.create.invoke(null, annotations, fields);
+                    eventType = JFR.getEventType.invoke(factory);
+                }
+                catch (ReflectiveOperationException | RuntimeException e)
+                {
+                    LOGGER.warn("Failed to define JFR event {}, it will not be recorded", name, e);
+                    factory = eventType = null;
+                }
+            }
+            this.factory = factory;
+            this.eventType = eventType;
+        }
+
+        /**
+         * @return true if a recording is running that records this event
+         */
+        boolean isEnabled()
+        {
+            try
+            {
+                return eventType != null && (boolean) JFR.isEnabled.invoke(eventType);
+            }
+            catch (ReflectiveOperationException e)
+            {
+                return false;
+            }
+        }
+
+        /**
+         * Starts timing a new event. Its fields are set by index, in the order they were defined.
+         */
+        Event begin()
+        {
+            if (!isEnabled())
+                return Event.NONE;
+            try
+            {
+                Object event = JFR.newEvent.invoke(factory);
+                JFR.begin.invoke(event);
+                return new Event(event);
+            }
+            catch (ReflectiveOperationException e)
+            {
+                return Event.NONE;
+            }
+        }
+    }
+
+    static class Event
+    {
+        private static final Event NONE = new Event(null);
+        
+        private final Object event;
+
+        private Event(Object event)
+        {
+            this.event = event;
+        }
+
+        Event set(int field, Object value)
+        {
+            if (event != null)
+                invoke(JFR.set, field, value);
+            return this;
+        }
+
+        /**
+         * Stops timing this event and records it
+         */
+        void commit()
+        {
+            if (event != null)
+            {
+                invoke(JFR.end);
+                invoke(JFR.commit);
+            }
+        }
+
+        private void invoke(Method method, Object... args)
+        {
+            try
+            {
+                method.invoke(event, args);
+            }
+            catch (IllegalAccessException | InvocationTargetException e)
+            {
+                LOGGER.warn("Failed to call {} on a JFR event", method.getName(), e);
+            }
+        }
+    }
+
+    private static class Reflection
+    {
+        private final Constructor<?> newAnnotationElement,
+                                     valueDescriptor;
+        private final Method create,
+                             getEventType,
+                             isEnabled,
+                             newEvent,
+                             begin,
+                             set,
+                             end,
+                             commit;
+
+        private Reflection() throws ReflectiveOperationException
+        {
+            this.newAnnotationElement = Class.forName("jdk.jfr.AnnotationElement").getConstructor(Class.class, Object.class);
+            this.valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class, String.class);
+            Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory"),
+                     event = Class.forName("jdk.jfr.Event");
+            this.create = eventFactory.getMethod("create", List.class, List.class);
+            this.getEventType = eventFactory.getMethod("getEventType");
+            this.isEnabled = Class.forName("jdk.jfr.EventType").getMethod("isEnabled");
+            this.newEvent = eventFactory.getMethod("newEvent");
+            this.begin = event.getMethod("begin");
+            this.set = event.getMethod("set", int.class, Object.class);
+            this.end = event.getMethod("end");
+            this.commit = event.getMethod("commit");
+        }
+
+        static Reflection load()
+        {
+            try
+            {
+                return new Reflection();
+            }
+            catch (ReflectiveOperationException | LinkageError e)
+            {
+                // No JFR API
+                return null;
+            }
+        }
+
+        Object newAnnotationElement(String annotation, Object value) throws ReflectiveOperationException
+        {
+            Class<? extends Annotation> annotationType = Class.forName("jdk.jfr." + annotation).asSubclass(Annotation.class);
+            return newAnnotationElement.newInstance(annotationType, value);
+        }
+    }
+}
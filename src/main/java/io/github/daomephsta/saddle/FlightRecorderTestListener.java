@@ -0,0 +1,56 @@
+package io.github.daomephsta.saddle;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+
+import io.github.daomephsta.saddle.FlightRecorderEvents.Event;
+import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+
+/**
+ * Records a {@link FlightRecorderEvents#TEST} event for each test and container, while a recording is running.
+ */
+public class FlightRecorderTestListener implements TestExecutionListener
+{
+    private final String phaseName;
+    private final Map<String, Event> events = new ConcurrentHashMap<>();
+
+    public FlightRecorderTestListener(LoadPhase loadPhase)
+    {
+        this.phaseName = loadPhase.name();
+    }
+
+    @Override
+    public void executionStarted(TestIdentifier testIdentifier)
+    {
+        if (FlightRecorderEvents.TEST.isEnabled())
+            events.put(testIdentifier.getUniqueId(), FlightRecorderEvents.TEST.begin());
+    }
+
+    @Override
+    public void executionSkipped(TestIdentifier testIdentifier, String reason)
+    {
+        commit(FlightRecorderEvents.TEST.begin(), testIdentifier, "SKIPPED");
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult result)
+    {
+        // Absent if the recording started mid-test
+        Event event = events.remove(testIdentifier.getUniqueId());
+        if (event != null)
+            commit(event, testIdentifier, result.getStatus().name());
+    }
+
+    private void commit(Event event, TestIdentifier testIdentifier, String status)
+    {
+        event.set(0, phaseName)
+            .set(1, testIdentifier.getUniqueId())
+            .set(2, testIdentifier.getDisplayName())
+            .set(3, status)
+            .commit();
+    }
+}
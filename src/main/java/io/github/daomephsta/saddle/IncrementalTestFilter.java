@@ -0,0 +1,55 @@
+package io.github.daomephsta.saddle;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+
+/**
+ * Excludes test methods that passed last time, if their class hasn't changed since.
+ */
+public class IncrementalTestFilter implements PostDiscoveryFilter
+{
+    private final TestHistory history;
+    private final ClassHashes classHashes;
+    private final AtomicInteger included = new AtomicInteger(),
+                                excluded = new AtomicInteger();
+
+    public IncrementalTestFilter(TestHistory history, ClassHashes classHashes)
+    {
+        this.history = history;
+        this.classHashes = classHashes;
+    }
+
+    @Override
+    public FilterResult apply(TestDescriptor descriptor)
+    {
+        if (!descriptor.getSource().filter(MethodSource.class::isInstance).isPresent())
+            return FilterResult.included("Not a test method");
+        MethodSource methodSource = (MethodSource) descriptor.getSource().get();
+        FilterResult result = history.get(TestHistory.getKey(methodSource))
+            .map(entry -> 
+            {
+                if (!entry.isSuccessful())
+                    return FilterResult.included("Was " + entry.getStatus().toLowerCase() + " last time");
+                if (!entry.getClassHash().equals(classHashes.get(methodSource.getClassName())))
+                    return FilterResult.included("Class changed");
+                return FilterResult.excluded("Unchanged and passed last time");
+            })
+            .orElseGet(() -> FilterResult.included("New test"));
+        (result.included() ? included : excluded).incrementAndGet();
+        return result;
+    }
+
+    public int getIncludedCount()
+    {
+        return included.get();
+    }
+
+    public int getExcludedCount()
+    {
+        return excluded.get();
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.daomephsta.saddle;
+
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+
+import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+import io.github.daomephsta.saddle.engine.SaddleTestEngine;
+import io.github.daomephsta.saddle.engine.TestClassMetadataCache;
+
+/**
+ * Excludes test methods without a load phase from every phase but their configured phase. 
+ * {@code -Dsaddle.select} replaces the includes of every phase, so it would otherwise run them once per phase.
+ */
+public class PhaselessTestFilter implements PostDiscoveryFilter
+{
+    private final LoadPhase loadPhase;
+    private final SaddleConfiguration configuration;
+    private final TestClassMetadataCache metadataCache;
+
+    public PhaselessTestFilter(LoadPhase loadPhase, SaddleConfiguration configuration, TestClassMetadataCache metadataCache)
+    {
+        this.loadPhase = loadPhase;
+        this.configuration = configuration;
+        this.metadataCache = metadataCache;
+    }
+
+    @Override
+    public FilterResult apply(TestDescriptor descriptor)
+    {
+        if (!descriptor.getSource().filter(MethodSource.class::isInstance).isPresent())
+            return FilterResult.included("Not a test method");
+        if (SaddleTestEngine.getLoadPhase(descriptor, metadataCache).isPresent())
+            return FilterResult.included("Has a load phase");
+        MethodSource methodSource = (MethodSource) descriptor.getSource().get();
+        LoadPhase configuredPhase = configuration.getConfiguredPhase(methodSource.getClassName(), methodSource.getMethodName());
+        return configuredPhase == loadPhase 
+            ? FilterResult.included("Configured for " + loadPhase) 
+            : FilterResult.excluded("Configured for " + configuredPhase);
+    }
+}
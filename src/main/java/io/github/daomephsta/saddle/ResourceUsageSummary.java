@@ -0,0 +1,78 @@
+package io.github.daomephsta.saddle;
+
+import java.io.PrintWriter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.junit.platform.engine.reporting.ReportEntry;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+
+import io.github.daomephsta.saddle.engine.ResourceUsage;
+
+/**
+ * Totals the resource usage published by each test of a phase, and lists the heaviest tests
+ */
+public class ResourceUsageSummary implements TestExecutionListener
+{
+    private static final int HEAVIEST_TEST_COUNT = 5;
+    
+    private final Map<String, Usage> usages = new ConcurrentHashMap<>();
+
+    @Override
+    public void reportingEntryPublished(TestIdentifier testIdentifier, ReportEntry entry)
+    {
+        ResourceUsage resourceUsage = ResourceUsage.fromReportEntry(entry.getKeyValuePairs());
+        if (resourceUsage != null)
+            usages.put(testIdentifier.getUniqueId(), new Usage(testIdentifier.getDisplayName(), resourceUsage));
+    }
+
+    public boolean isEmpty()
+    {
+        return usages.isEmpty();
+    }
+
+    public void printTo(PrintWriter writer)
+    {
+        long cpuNanos = 0, 
+             allocatedBytes = 0;
+        for (Usage usage : usages.values())
+        {
+            cpuNanos += Math.max(usage.resourceUsage.getCpuNanos(), 0);
+            allocatedBytes += Math.max(usage.resourceUsage.getAllocatedBytes(), 0);
+        }
+        writer.printf("%nResource usage of %d tests: cpu %.3f ms, %.1f KiB allocated%n", 
+            usages.size(), cpuNanos / 1_000_000.0, allocatedBytes / 1024.0);
+        // GCs are JVM wide, so totalling them would count collections during concurrent tests repeatedly
+        printHeaviest(writer, "allocation", Comparator.comparingLong(usage -> usage.resourceUsage.getAllocatedBytes()));
+        printHeaviest(writer, "CPU time", Comparator.comparingLong(usage -> usage.resourceUsage.getCpuNanos()));
+        printHeaviest(writer, "GC time", Comparator.comparingLong(usage -> usage.resourceUsage.getGcMillis()));
+        writer.flush();
+    }
+
+    private void printHeaviest(PrintWriter writer, String measure, Comparator<Usage> comparator)
+    {
+        List<Usage> heaviest = usages.values().stream()
+            .sorted(comparator.reversed())
+            .limit(HEAVIEST_TEST_COUNT)
+            .collect(Collectors.toList());
+        writer.printf("Heaviest tests by %s:%n", measure);
+        for (Usage usage : heaviest)
+            writer.printf("\t%s: %s%n", usage.displayName, usage.resourceUsage);
+    }
+
+    private static class Usage
+    {
+        final String displayName;
+        final ResourceUsage resourceUsage;
+
+        Usage(String displayName, ResourceUsage resourceUsage)
+        {
+            this.displayName = displayName;
+            this.resourceUsage = resourceUsage;
+        }
+    }
+}
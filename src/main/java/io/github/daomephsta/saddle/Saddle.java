@@ -2,16 +2,44 @@ package io.github.daomephsta.saddle;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.discovery.ClassSelector;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.engine.discovery.MethodSelector;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
 import org.junit.platform.launcher.Launcher;
 import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.PostDiscoveryFilter;
 import org.junit.platform.launcher.TestExecutionListener;
 import org.junit.platform.launcher.TestIdentifier;
 import org.junit.platform.launcher.TestPlan;
@@ -21,13 +49,23 @@ import org.junit.platform.launcher.core.LauncherFactory;
 import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
 import org.junit.platform.launcher.listeners.TestExecutionSummary;
 
+import io.github.daomephsta.saddle.engine.FailFastExtension;
+import io.github.daomephsta.saddle.engine.Fixtures;
 import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
 import io.github.daomephsta.saddle.engine.SaddleTestEngine;
+import io.github.daomephsta.saddle.engine.TestClassMetadataCache;
+import io.github.daomephsta.saddle.index.SaddleTestIndex;
+import io.github.daomephsta.saddle.index.SaddleTestIndex.IndexedTest;
+import net.minecraft.client.Minecraft;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.IThreadListener;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLServerStartedEvent;
+import net.minecraftforge.fml.common.event.FMLServerStoppingEvent;
 
 @Mod(modid = Saddle.MOD_ID, name = Saddle.NAME, version = Saddle.VERSION, acceptedMinecraftVersions = "")
 public class Saddle
@@ -36,30 +74,152 @@ public class Saddle
                                NAME = "Saddle",
                                VERSION = "GRADLE:VERSION";
     private static final String ENGINE_ACTIVE_SYSPROP = "saddle.active";
+    // Distinct from the exit codes of Minecraft and test failures 
+    private static final int PHASE_TIMEOUT_EXIT_CODE = 3;
     private static final Logger LOGGER = LogManager.getLogger("Saddle");
     
     private final File SADDLE_LOG_DIR = new File("logs/saddle");
+    // SADDLE_LOG_DIR, or a subdirectory of it when sharding
+    private File outputDirectory;
     private SaddleConfiguration configuration;
-    private Map<LoadPhase, Tests> tests;
+    private TestHistory testHistory;
+    // The history as loaded, so discovery never reads results recorded while it runs
+    private TestHistory historySnapshot;
+    private TestClasses testClasses;
+    private Map<LoadPhase, CompletableFuture<Tests>> tests;
+    private SaddleDaemon daemon;
+    private final SaddleStatistics statistics = new SaddleStatistics();
+    private TickPhaseRunner tickPhaseRunner;
+    private static class TestClasses
+    {
+        private final ClassLoader classLoader;
+        private final TestClassMetadataCache metadataCache = new TestClassMetadataCache();
+        private final ClassHashes classHashes;
+        // True if classLoader only loads the test classes of one phase, so it can be closed once that phase has run
+        private final boolean phaseClassLoader;
+        // The tests found by single-pass discovery through classLoader, if it was used
+        private SinglePassScan singlePassScan;
+
+        TestClasses(ClassLoader classLoader)
+        {
+            this(classLoader, false);
+        }
+
+        TestClasses(ClassLoader classLoader, boolean phaseClassLoader)
+        {
+            this.classLoader = classLoader;
+            this.classHashes = new ClassHashes(classLoader);
+            this.phaseClassLoader = phaseClassLoader;
+        }
+    }
+
+    /**
+     * The tests of every phase, found by one scan, which each phase's plan is built from
+     */
+    private static class SinglePassScan
+    {
+        private final Map<LoadPhase, List<TestDescriptor>> tests;
+        private final long scanNanos;
+        private final int scannedPhases;
+        private final LongAdder buildNanos = new LongAdder();
+        private final AtomicInteger unbuiltPhases;
+
+        SinglePassScan(Map<LoadPhase, List<TestDescriptor>> tests, long scanNanos, int scannedPhases)
+        {
+            this.tests = new ConcurrentHashMap<>(tests);
+            this.scanNanos = scanNanos;
+            this.scannedPhases = scannedPhases;
+            this.unbuiltPhases = new AtomicInteger(tests.size());
+        }
+
+        /**
+         * @return the tests found for {@code loadPhase}, which are then released, or null if they have already been taken
+         */
+        List<TestDescriptor> take(LoadPhase loadPhase)
+        {
+            return tests.remove(loadPhase);
+        }
+
+        void recordBuild(long phaseBuildNanos)
+        {
+            buildNanos.add(phaseBuildNanos);
+            if (unbuiltPhases.decrementAndGet() == 0)
+            {
+                // Discovering each phase separately scans each configured phase, and each scan costs about as much as this one
+                long scanMillis = TimeUnit.NANOSECONDS.toMillis(scanNanos),
+                     buildMillis = buildNanos.sum() / 1_000_000,
+                     separateMillis = scanMillis * scannedPhases;
+                LOGGER.info("Single-pass discovery scanned once in {} ms and built every phase's plan from the result in {} ms. " 
+                    + "Scanning each of the {} configured phases separately would take about {} ms, so about {} ms were saved", 
+                    scanMillis, buildMillis, scannedPhases, separateMillis, separateMillis - scanMillis - buildMillis);
+            }
+        }
+    }
+
+    private static class PhaseResults
+    {
+        private final TestExecutionSummary summary;
+        private final ResourceUsageSummary resourceUsage;
+
+        PhaseResults(TestExecutionSummary summary, ResourceUsageSummary resourceUsage)
+        {
+            this.summary = summary;
+            this.resourceUsage = resourceUsage;
+        }
+    }
+
     private static class Tests
     {
-        private final Launcher launcher;
-        private final TestPlan testPlan;
+        private final LoadPhase loadPhase;
+        private final boolean hasTests;
+        // Null once released
+        private Launcher launcher;
+        private TestPlan testPlan;
+        private TestClasses testClasses;
         
-        Tests(Launcher launcher, TestPlan testPlan)
+        Tests(LoadPhase loadPhase, Launcher launcher, TestPlan testPlan, TestClasses testClasses)
         {
+            this.loadPhase = loadPhase;
+            this.hasTests = testPlan.containsTests();
             this.launcher = launcher;
             this.testPlan = testPlan;
+            this.testClasses = testClasses;
         }
         
         void execute(TestExecutionListener... executionListeners)
         {
+            FlightRecorderEvents.Event event = FlightRecorderEvents.EXECUTION.begin();
             launcher.execute(testPlan, executionListeners);
+            event.set(0, loadPhase.name())
+                .set(1, testPlan.countTestIdentifiers(TestIdentifier::isTest))
+                .commit();
         }
 
         public boolean hasTests()
         {
-            return testPlan.containsTests();
+            return hasTests;
+        }
+
+        /**
+         * Drops the launcher, test plan and test classes, so that their descriptors, 
+         * and the classes of a phase class loader, can be garbage collected
+         */
+        void release()
+        {
+            if (testClasses != null && testClasses.phaseClassLoader)
+            {
+                try
+                {
+                    ((ChildFirstClassLoader) testClasses.classLoader).close();
+                }
+                catch (IOException e)
+                {
+                    LOGGER.warn("Failed to close the class loader of phase {}", loadPhase, e);
+                }
+            }
+            launcher = null;
+            testPlan = null;
+            testClasses = null;
         }
     }
     
@@ -74,7 +234,7 @@ public class Saddle
         setup();
         discoverSaddleTests();
         executeSaddleTests(LoadPhase.PRE_INIT);
-        if (shouldExitOnTestCompletion() && !tests.get(LoadPhase.INIT).hasTests() && !tests.get(LoadPhase.POST_INIT).hasTests())
+        if (shouldExitOnTestCompletion() && !hasTestsAfter(LoadPhase.PRE_INIT))
         {
             LOGGER.info("All tests complete, JVM shutting down");
             FMLCommonHandler.instance().exitJava(0, false);
@@ -84,26 +244,280 @@ public class Saddle
     private void discoverSaddleTests()
     {
         tests = new EnumMap<>(LoadPhase.class);
+        for (LoadPhase loadPhase : LoadPhase.values())
+            tests.put(loadPhase, new CompletableFuture<>());
+        configuration.getSelectorOverride().ifPresent(selectorOverride -> 
+            LOGGER.info("saddle.select replaces the configured includes and excludes with {}", Arrays.toString(selectorOverride)));
+        Map<LoadPhase, DiscoverySelector[]> selectors = resolveSelectors(testClasses);
+        List<LoadPhase> laterPhases = Stream.of(LoadPhase.values())
+            .filter(loadPhase -> loadPhase != LoadPhase.PRE_INIT)
+            .collect(Collectors.toList());
+        if (shouldUseBackgroundDiscovery())
+        {
+            /* Discovery only loads test classes and the classes they reference, without initialising them, 
+             * so it's safe alongside other mods' loading. Classes are loaded through the loading thread's class loader. */
+            Thread discoveryThread = new Thread(() -> 
+            {
+                for (LoadPhase loadPhase : laterPhases)
+                    completeDiscovery(loadPhase, selectors.get(loadPhase));
+            }, "Saddle Discovery");
+            discoveryThread.setDaemon(true);
+            discoveryThread.setContextClassLoader(Thread.currentThread().getContextClassLoader());
+            discoveryThread.start();
+        }
+        completeDiscovery(LoadPhase.PRE_INIT, selectors.get(LoadPhase.PRE_INIT));
+        if (!shouldUseBackgroundDiscovery())
+        {
+            for (LoadPhase loadPhase : laterPhases)
+                completeDiscovery(loadPhase, selectors.get(loadPhase));
+        }
+    }
+
+    private void completeDiscovery(LoadPhase loadPhase, DiscoverySelector[] selectors)
+    {
+        TestClasses phaseTestClasses = getPhaseTestClasses();
+        Thread currentThread = Thread.currentThread();
+        ClassLoader previousContextClassLoader = currentThread.getContextClassLoader();
+        if (phaseTestClasses.phaseClassLoader)
+            currentThread.setContextClassLoader(phaseTestClasses.classLoader);
+        try
+        {
+            tests.get(loadPhase).complete(discoverPhase(loadPhase, selectors, phaseTestClasses, configuration.isIncrementalSelectionEnabled()));
+        }
+        catch (RuntimeException | Error e)
+        {
+            tests.get(loadPhase).completeExceptionally(e);
+        }
+        finally
+        {
+            currentThread.setContextClassLoader(previousContextClassLoader);
+        }
+    }
+
+    /**
+     * @return test classes loaded by a new class loader, if phase class loaders are enabled, 
+     * or the test classes shared by all phases otherwise
+     */
+    private TestClasses getPhaseTestClasses()
+    {
+        if (!configuration.usesPhaseClassLoaders())
+            return testClasses;
+        List<URL> testClasspath = configuration.getPhaseTestClasspath();
+        if (testClasspath.isEmpty())
+        {
+            LOGGER.warn("Phase class loaders need a test classpath, loading test classes with the game's class loader");
+            return testClasses;
+        }
+        return new TestClasses(new ChildFirstClassLoader(testClasspath.toArray(new URL[0]), Saddle.class.getClassLoader()), true);
+    }
+
+    /**
+     * @return the tests of {@code loadPhase}, waiting for their discovery to finish if it is still running
+     */
+    private Tests getTests(LoadPhase loadPhase)
+    {
+        CompletableFuture<Tests> phaseTests = tests.get(loadPhase);
+        if (!phaseTests.isDone())
+        {
+            long waitStart = System.nanoTime();
+            phaseTests.exceptionally(e -> null).join();
+            LOGGER.info("Waited {} ms for background discovery of {}", 
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - waitStart), loadPhase);
+        }
+        try
+        {
+            return phaseTests.join();
+        }
+        catch (CompletionException e)
+        {
+            throw new RuntimeException("Failed to discover tests for " + loadPhase, e.getCause());
+        }
+    }
+
+    private Map<LoadPhase, DiscoverySelector[]> resolveSelectors(TestClasses testClasses)
+    {
+        if (configuration.isIndexEnabled())
+        {
+            Optional<SaddleTestIndex> index = SaddleTestIndex.load(testClasses.classLoader);
+            if (index.isPresent())
+                return indexedSelectors(index.get());
+            LOGGER.warn("The test index is enabled, but there is no {}, scanning instead", SaddleTestIndex.RESOURCE);
+        }
+        if (shouldUseSinglePassDiscovery())
+            return scanAllPhases(testClasses);
+        else
+            return configuredSelectors();
+    }
+
+    private Map<LoadPhase, DiscoverySelector[]> configuredSelectors()
+    {
+        Map<LoadPhase, DiscoverySelector[]> selectors = new EnumMap<>(LoadPhase.class);
+        for (LoadPhase loadPhase : LoadPhase.values())
+            selectors.put(loadPhase, configuration.getSelectors(loadPhase));
+        return selectors;
+    }
+
+    private Map<LoadPhase, DiscoverySelector[]> indexedSelectors(SaddleTestIndex index)
+    {
+        LOGGER.info("Found test index of {} tests, skipping classpath scanning", index.size());
+        Map<LoadPhase, DiscoverySelector[]> selectors = new EnumMap<>(LoadPhase.class);
         for (LoadPhase loadPhase : LoadPhase.values())
         {
-            LauncherConfig config = buildLauncherConfig(loadPhase);
-            LauncherDiscoveryRequest launcherDiscoveryRequest = buildDiscoveryRequest(loadPhase);
-            Launcher launcher = LauncherFactory.create(config);
-            System.setProperty(ENGINE_ACTIVE_SYSPROP, "true");
-            TestPlan testPlan = launcher.discover(launcherDiscoveryRequest);
-            LOGGER.info("Discovered {} tests for {}", testPlan.countTestIdentifiers(TestIdentifier::isTest), loadPhase);
-            System.setProperty(ENGINE_ACTIVE_SYSPROP, "false");
-            tests.put(loadPhase, new Tests(launcher, testPlan));
+            Optional<String> uncovered = getUncoveredSelector(index, configuration.getSelectors(loadPhase));
+            if (uncovered.isPresent())
+            {
+                // A stale index must not silently drop tests
+                LOGGER.warn("The test index has no tests for {}, which is included in {}. Scanning {} instead; rebuild the index to avoid this", 
+                    uncovered.get(), loadPhase, loadPhase);
+                selectors.put(loadPhase, configuration.getSelectors(loadPhase));
+                continue;
+            }
+            selectors.put(loadPhase, index.getTests(loadPhase).stream()
+                .filter(test -> configuration.selects(loadPhase, test.getClassName(), test.getMethodName()))
+                .map(IndexedTest::toSelector)
+                .toArray(DiscoverySelector[]::new));
         }
+        return selectors;
+    }
+
+    /**
+     * @return a description of a class or method selector in {@code selectors} whose class has no indexed tests
+     */
+    private static Optional<String> getUncoveredSelector(SaddleTestIndex index, DiscoverySelector[] selectors)
+    {
+        for (DiscoverySelector selector : selectors)
+        {
+            if (selector instanceof ClassSelector && !index.containsClass(((ClassSelector) selector).getClassName()))
+                return Optional.of(((ClassSelector) selector).getClassName());
+            if (selector instanceof MethodSelector && !index.containsClass(((MethodSelector) selector).getClassName()))
+                return Optional.of(((MethodSelector) selector).getClassName() + '#' + ((MethodSelector) selector).getMethodName());
+        }
+        return Optional.empty();
+    }
+
+    private Map<LoadPhase, DiscoverySelector[]> scanAllPhases(TestClasses testClasses)
+    {
+        long scanStart = System.nanoTime();
+        List<DiscoverySelector> allSelectors = new ArrayList<>();
+        int scannedPhases = 0;
+        for (LoadPhase loadPhase : LoadPhase.values())
+        {
+            DiscoverySelector[] phaseSelectors = configuration.getSelectors(loadPhase);
+            if (phaseSelectors.length > 0)
+                scannedPhases++;
+            Collections.addAll(allSelectors, phaseSelectors);
+        }
+        LauncherDiscoveryRequest launcherDiscoveryRequest = LauncherDiscoveryRequestBuilder.request()
+            .selectors(allSelectors)
+            .build();
+        Map<LoadPhase, List<TestDescriptor>> testsByPhase = SaddleTestEngine.discoverByLoadPhase(launcherDiscoveryRequest, testClasses.metadataCache);
+        for (LoadPhase loadPhase : LoadPhase.values())
+        {
+            testsByPhase.get(loadPhase).removeIf(test -> 
+            {
+                MethodSource source = (MethodSource) test.getSource().get();
+                return !configuration.selects(loadPhase, source.getClassName(), source.getMethodName());
+            });
+        }
+        long scanTime = System.nanoTime() - scanStart;
+        // Phase class loaders load each phase's classes again, so those phases can't use the descriptors found
+        if (!configuration.usesPhaseClassLoaders())
+            testClasses.singlePassScan = new SinglePassScan(testsByPhase, scanTime, scannedPhases);
+        
+        Map<LoadPhase, DiscoverySelector[]> selectors = new EnumMap<>(LoadPhase.class);
+        /* Each phase's plan is built from copies of the tests found, unless its classes are loaded by a class loader of its own. 
+         * Those phases select the tests found directly instead, so their discovery still doesn't scan again. */
+        for (LoadPhase loadPhase : LoadPhase.values())
+        {
+            selectors.put(loadPhase, testsByPhase.get(loadPhase).stream()
+                .map(test -> DiscoverySelectors.selectUniqueId(test.getUniqueId()))
+                .toArray(DiscoverySelector[]::new));
+        }
+        LOGGER.info("Single-pass discovery scanned {} phase configurations once in {} ms", 
+            scannedPhases, TimeUnit.NANOSECONDS.toMillis(scanTime));
+        return selectors;
+    }
+
+    private Tests discoverPhase(LoadPhase loadPhase, DiscoverySelector[] selectors, TestClasses testClasses, boolean incremental)
+    {
+        SaddleTestEngine engine = new SaddleTestEngine(loadPhase, testClasses.metadataCache, configuration.getTestOrder(), historySnapshot);
+        SinglePassScan singlePassScan = testClasses.singlePassScan;
+        if (singlePassScan != null)
+            engine.setScannedTests(singlePassScan.take(loadPhase));
+        LauncherConfig config = buildLauncherConfig(engine);
+        List<PostDiscoveryFilter> postDiscoveryFilters = new ArrayList<>();
+        ShardFilter shardFilter = configuration.getShard()
+            .map(shard -> new ShardFilter(shard, getShardWeights()))
+            .orElse(null);
+        if (shardFilter != null)
+        {
+            // Assigned from the unfiltered tests, which are the same on every shard
+            engine.setDiscoveryListener(shardFilter::assignClasses);
+            postDiscoveryFilters.add(shardFilter);
+        }
+        IncrementalTestFilter incrementalFilter = incremental 
+            ? new IncrementalTestFilter(historySnapshot, testClasses.classHashes) 
+            : null;
+        if (incrementalFilter != null)
+            postDiscoveryFilters.add(incrementalFilter);
+        if (configuration.getSelectorOverride().isPresent())
+            postDiscoveryFilters.add(new PhaselessTestFilter(loadPhase, configuration, testClasses.metadataCache));
+        LauncherDiscoveryRequest launcherDiscoveryRequest = buildDiscoveryRequest(loadPhase, selectors, postDiscoveryFilters);
+        Launcher launcher = LauncherFactory.create(config);
+        FlightRecorderEvents.Event discoveryEvent = FlightRecorderEvents.DISCOVERY.begin();
+        long discoveryStart = System.nanoTime();
+        // saddle.active is only checked during execution, so it isn't set here, where it could race with execution 
+        TestPlan testPlan = launcher.discover(launcherDiscoveryRequest);
+        long discoveryTime = System.nanoTime() - discoveryStart;
+        if (singlePassScan != null)
+            singlePassScan.recordBuild(discoveryTime);
+        long testCount = testPlan.countTestIdentifiers(TestIdentifier::isTest),
+             classCount = testPlan.countTestIdentifiers(identifier -> identifier.getSource().filter(ClassSource.class::isInstance).isPresent());
+        discoveryEvent.set(0, loadPhase.name())
+            .set(1, classCount)
+            .set(2, testCount)
+            .commit();
+        statistics.recordDiscovery(classCount, testCount, discoveryTime);
+        LOGGER.info("Discovered {} tests for {} in {} ms ({} ms resolving load phases, {} classes reflected so far)", 
+            testCount, loadPhase, TimeUnit.NANOSECONDS.toMillis(discoveryTime), 
+            engine.getPhasePruningTime(TimeUnit.MILLISECONDS), testClasses.metadataCache.getReflectedClassCount());
+        if (incrementalFilter != null)
+        {
+            LOGGER.info("Incremental selection skipped {} unchanged tests that passed last time, {} tests remain", 
+                incrementalFilter.getExcludedCount(), incrementalFilter.getIncludedCount());
+        }
+        if (shardFilter != null)
+        {
+            LOGGER.info("Shard {} runs {} of {} test classes, estimated to take {} ms", configuration.getShard().get(), 
+                shardFilter.getShardClassCount(), shardFilter.getClassCount(), 
+                TimeUnit.NANOSECONDS.toMillis(shardFilter.getEstimatedDuration()));
+        }
+        return new Tests(loadPhase, launcher, testPlan, testClasses);
+    }
+
+    private Map<String, Long> getShardWeights()
+    {
+        // Every shard must use the same weights, so never weight by this shard's own history
+        return configuration.getShardWeights()
+            .map(weights -> TestHistory.load(weights).getClassDurations())
+            .orElse(Collections.emptyMap());
     }
 
     private void setup()
     {
-        SADDLE_LOG_DIR.mkdirs();
         InputStream configFile = ClassLoader.getSystemClassLoader().getResourceAsStream("saddle-config.json");
         if (configFile == null)
             throw new IllegalStateException("Missing saddle-config.json");
         configuration = SaddleConfiguration.from(configFile);
+        outputDirectory = configuration.getShard()
+            .map(shard -> new File(SADDLE_LOG_DIR, shard.getName()))
+            .orElse(SADDLE_LOG_DIR);
+        outputDirectory.mkdirs();
+        if (configuration.isJmxEnabled())
+            statistics.register();
+        testHistory = TestHistory.load(new File(outputDirectory, "history.json"));
+        historySnapshot = testHistory.snapshot();
+        testClasses = new TestClasses(ClassLoader.getSystemClassLoader());
     }
     
     @Mod.EventHandler
@@ -115,7 +529,7 @@ public class Saddle
             return;
         }
         executeSaddleTests(LoadPhase.INIT);
-        if (shouldExitOnTestCompletion() && !tests.get(LoadPhase.POST_INIT).hasTests())
+        if (shouldExitOnTestCompletion() && !hasTestsAfter(LoadPhase.INIT))
         {
             LOGGER.info("All tests complete, JVM shutting down");
             FMLCommonHandler.instance().exitJava(0, false);
@@ -131,60 +545,277 @@ public class Saddle
             return;
         }
         executeSaddleTests(LoadPhase.POST_INIT);
-        if (shouldExitOnTestCompletion())
+        // Tick scheduled phases finish once the server has started
+        if (!hasTestsAfter(LoadPhase.POST_INIT))
+            finishTesting();
+    }
+    
+    @Mod.EventHandler
+    public void serverStarted(FMLServerStartedEvent event)
+    {
+        if (isEnabled() || tickPhaseRunner != null || !hasTestsAfter(LoadPhase.POST_INIT))
+            return;
+        List<LoadPhase> tickPhases = Stream.of(LoadPhase.values())
+            .filter(LoadPhase::isTickScheduled)
+            .filter(loadPhase -> getTests(loadPhase).hasTests())
+            .collect(Collectors.toList());
+        LOGGER.info("Running tick scheduled phases {} with a budget of {} ms per tick", tickPhases, configuration.getTickBudgetMillis());
+        tickPhaseRunner = new TickPhaseRunner(tickPhases, this::executeSaddleTests, this::finishTesting, configuration.getTickBudgetMillis());
+        tickPhaseRunner.start();
+    }
+    
+    @Mod.EventHandler
+    public void serverStopping(FMLServerStoppingEvent event)
+    {
+        if (tickPhaseRunner != null)
+            tickPhaseRunner.stop();
+    }
+
+    private void finishTesting()
+    {
+        Fixtures.evictSuite();
+        if (configuration.isDaemonEnabled())
+            startDaemon();
+        else if (shouldExitOnTestCompletion())
         {
             LOGGER.info("All tests complete, JVM shutting down");
             FMLCommonHandler.instance().exitJava(0, false);
         }
     }
+
+    private boolean hasTestsAfter(LoadPhase loadPhase)
+    {
+        for (LoadPhase later : LoadPhase.values())
+        {
+            if (later.compareTo(loadPhase) > 0 && getTests(later).hasTests())
+                return true;
+        }
+        return false;
+    }
+
+    private void startDaemon()
+    {
+        try
+        {
+            daemon = new SaddleDaemon(configuration.getDaemonPort(), (loadPhases, selectorOverride, output) -> 
+                runOnGameThread(() -> rerunSaddleTests(loadPhases, selectorOverride, output), output));
+            daemon.start();
+            LOGGER.info("Saddle daemon listening on localhost:{}", daemon.getPort());
+            Files.write(new File(outputDirectory, "daemon.port").toPath(), 
+                Integer.toString(daemon.getPort()).getBytes(StandardCharsets.UTF_8));
+        }
+        catch (IOException e)
+        {
+            LOGGER.error("Failed to start Saddle daemon", e);
+        }
+    }
+
+    /**
+     * Runs {@code task} on the server thread if a server is running, or the client thread otherwise, 
+     * as tests expect to run on the game's threads rather than the daemon's. Waits for it to finish.
+     */
+    private static void runOnGameThread(Runnable task, PrintWriter output)
+    {
+        MinecraftServer server = FMLCommonHandler.instance().getMinecraftServerInstance();
+        IThreadListener gameThread = server != null ? server : ClientThread.get();
+        try
+        {
+            gameThread.addScheduledTask(task).get();
+        }
+        catch (ExecutionException e)
+        {
+            LOGGER.error("Saddle daemon re-run failed", e.getCause());
+            e.getCause().printStackTrace(output);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            output.println("Interrupted while waiting for the re-run to finish");
+        }
+    }
+
+    // Only loaded on the client, as the client classes don't exist on dedicated servers
+    private static class ClientThread
+    {
+        static IThreadListener get()
+        {
+            return Minecraft.getMinecraft();
+        }
+    }
+
+    private void rerunSaddleTests(List<LoadPhase> loadPhases, DiscoverySelector[] selectorOverride, PrintWriter output)
+    {
+        List<URL> testClasspath = configuration.getDaemonTestClasspath();
+        if (testClasspath.isEmpty())
+            output.println("No test classpath configured, changed test classes will not be reloaded");
+        Thread currentThread = Thread.currentThread();
+        ClassLoader previousContextClassLoader = currentThread.getContextClassLoader();
+        // A fresh loader, so that changed test classes are loaded again
+        try (ChildFirstClassLoader testClassLoader = new ChildFirstClassLoader(testClasspath.toArray(new URL[0]), Saddle.class.getClassLoader()))
+        {
+            currentThread.setContextClassLoader(testClassLoader);
+            TestClasses freshTestClasses = new TestClasses(testClassLoader);
+            Map<LoadPhase, DiscoverySelector[]> selectors = selectorOverride == null 
+                ? resolveSelectors(freshTestClasses) 
+                : null;
+            for (LoadPhase loadPhase : loadPhases)
+            {
+                if (loadPhase.isTickScheduled())
+                {
+                    // No tick handler drains the queue outside of a TickPhaseRunner
+                    output.printf("%s: skipped, tick scheduled phases are not re-run by the daemon%n", loadPhase);
+                    continue;
+                }
+                Tests phaseTests = discoverPhase(loadPhase, selectors != null ? selectors.get(loadPhase) : selectorOverride, 
+                    freshTestClasses, false);
+                PhaseResults results = executeTests(loadPhase, phaseTests, freshTestClasses);
+                outputTestResults(loadPhase, results);
+                TestExecutionSummary summary = results.summary;
+                output.printf("%s: %d found, %d skipped, %d aborted, %d failed, %d passed%n", loadPhase, 
+                    summary.getTestsFoundCount(), summary.getTestsSkippedCount(), summary.getTestsAbortedCount(), 
+                    summary.getTestsFailedCount(), summary.getTestsSucceededCount());
+                summary.printFailuresTo(output);
+            }
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace(output);
+        }
+        finally
+        {
+            // Suite fixtures may come from the reloaded test classes
+            Fixtures.evictSuite();
+            currentThread.setContextClassLoader(previousContextClassLoader);
+        }
+    }
     
     private void executeSaddleTests(LoadPhase loadPhase)
+    {
+        Tests phaseTests = getTests(loadPhase);
+        Thread currentThread = Thread.currentThread();
+        ClassLoader previousContextClassLoader = currentThread.getContextClassLoader();
+        if (phaseTests.testClasses.phaseClassLoader)
+            currentThread.setContextClassLoader(phaseTests.testClasses.classLoader);
+        try
+        {
+            outputTestResults(loadPhase, executeTests(loadPhase, phaseTests, phaseTests.testClasses));
+        }
+        finally
+        {
+            currentThread.setContextClassLoader(previousContextClassLoader);
+        }
+        releaseTests(phaseTests);
+    }
+
+    private void releaseTests(Tests phaseTests)
+    {
+        if (!configuration.shouldLogRetainedHeap())
+        {
+            phaseTests.release();
+            return;
+        }
+        long retainedBefore = getRetainedHeap();
+        phaseTests.release();
+        long retainedAfter = getRetainedHeap();
+        LOGGER.info("Released the tests of {}, heap retained after a full GC went from {} KB to {} KB ({} KB freed)", 
+            phaseTests.loadPhase, retainedBefore / 1024, retainedAfter / 1024, (retainedBefore - retainedAfter) / 1024);
+    }
+
+    private static long getRetainedHeap()
+    {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private PhaseResults executeTests(LoadPhase loadPhase, Tests phaseTests, TestClasses testClasses)
     {
         LOGGER.info("Running tests for {}", loadPhase);
         System.setProperty(ENGINE_ACTIVE_SYSPROP, "true");
         SummaryGeneratingListener summariser = new SummaryGeneratingListener();
-        tests.get(loadPhase).execute(summariser, new SaddleTestExecutionLogger(LOGGER, Level.INFO));
+        ResourceUsageSummary resourceUsage = new ResourceUsageSummary();
+        String phaseName = loadPhase.toString().toLowerCase();
+        StreamingTestReporter reporter = new StreamingTestReporter(
+            configuration.isNdjsonReportEnabled() ? new File(outputDirectory, phaseName + ".ndjson") : null,
+            configuration.isJunitXmlReportEnabled() ? new File(outputDirectory, phaseName + ".xml") : null,
+            "saddle." + phaseName);
+        statistics.setCurrentPhase(loadPhase);
+        long executionStart = System.nanoTime();
+        phaseTests.execute(summariser, resourceUsage, new SaddleTestExecutionLogger(LOGGER, Level.INFO), reporter, 
+            new TestHistoryRecorder(testHistory, testClasses.classHashes), statistics, new FlightRecorderTestListener(loadPhase), 
+            new FailFastExtension.FailureListener(), 
+            new SaddleWatchdog(loadPhase, outputDirectory, configuration.getTestTimeoutMillis(), configuration.getTestGracePeriodMillis(), 
+                configuration.getPhaseTimeoutMillis(), () -> 
+                {
+                    LOGGER.fatal("{} timed out, JVM shutting down", loadPhase);
+                    FMLCommonHandler.instance().exitJava(PHASE_TIMEOUT_EXIT_CODE, false);
+                }));
+        statistics.recordExecution(System.nanoTime() - executionStart);
+        statistics.setCurrentPhase(null);
         System.setProperty(ENGINE_ACTIVE_SYSPROP, "false");
-        outputTestResults(loadPhase, summariser.getSummary());
+        return new PhaseResults(summariser.getSummary(), resourceUsage);
     }
 
-    private LauncherConfig buildLauncherConfig(LoadPhase loadPhase)
+    private LauncherConfig buildLauncherConfig(SaddleTestEngine engine)
     {
         LauncherConfig config = LauncherConfig.builder()
             .enableTestEngineAutoRegistration(false)
             .addTestEngines
             (
-                new SaddleTestEngine(loadPhase)
+                engine
             )
             .build();
         return config;
     }
 
-    private LauncherDiscoveryRequest buildDiscoveryRequest(LoadPhase loadPhase)
+    private LauncherDiscoveryRequest buildDiscoveryRequest(LoadPhase loadPhase, DiscoverySelector[] selectors, 
+        List<PostDiscoveryFilter> postDiscoveryFilters)
     {
-        LauncherDiscoveryRequest launcherDiscoveryRequest = LauncherDiscoveryRequestBuilder.request()
-            .selectors(configuration.getSelectors(loadPhase))
+        LauncherDiscoveryRequestBuilder builder = LauncherDiscoveryRequestBuilder.request()
+            .selectors(selectors)
+            .filters(postDiscoveryFilters.toArray(new PostDiscoveryFilter[0]))
             .filters(configuration.getFilters(loadPhase))
-            .configurationParameter("junit.jupiter.execution.parallel.enabled", "false")
-            .build();
-        return launcherDiscoveryRequest;
+            .configurationParameter("junit.jupiter.execution.parallel.enabled", Boolean.toString(configuration.isParallelExecutionEnabled()))
+            .configurationParameter("junit.jupiter.execution.parallel.mode.default", "concurrent")
+            .configurationParameter("junit.jupiter.execution.parallel.config.strategy", "fixed")
+            .configurationParameter("junit.jupiter.execution.parallel.config.fixed.parallelism", Integer.toString(configuration.getParallelism()))
+            .configurationParameter("saddle.loadPhase", loadPhase.name())
+            .configurationParameter("saddle.outputDirectory", outputDirectory.getPath())
+            .configurationParameter("saddle.benchmark.regressionThreshold", Double.toString(configuration.getBenchmarkRegressionThreshold()))
+            .configurationParameter("saddle.benchmark.failOnRegression", Boolean.toString(configuration.shouldFailOnBenchmarkRegression()))
+            .configurationParameter("saddle.benchmark.updateBaseline", Boolean.toString(configuration.shouldUpdateBenchmarkBaseline()))
+            .configurationParameter("saddle.budget.allocatedBytes", Long.toString(configuration.getAllocationBudgetBytes()))
+            .configurationParameter("saddle.budget.cpuMillis", Long.toString(configuration.getCpuBudgetMillis()))
+            .configurationParameter("saddle.failFast", Boolean.toString(configuration.isFailFastEnabled()));
+        // Jupiter interrupts and fails tests that exceed the deadline, so later tests can still run
+        if (configuration.getTestTimeoutMillis() > 0)
+            builder.configurationParameter("junit.jupiter.execution.timeout.testable.method.default", configuration.getTestTimeoutMillis() + " ms");
+        return builder.build();
     }
 
-    private void outputTestResults(LoadPhase loadPhase, TestExecutionSummary summary)
+    private void outputTestResults(LoadPhase loadPhase, PhaseResults results)
     {
+        TestExecutionSummary summary = results.summary;
         LOGGER.info("({} found, {} skipped, {} aborted, {} started, {} failed, {} passed) in {} ms", 
             summary.getTestsFoundCount(), summary.getTestsSkippedCount(), summary.getTestsAbortedCount(), 
             summary.getTestsStartedCount(), summary.getTestsFailedCount(), summary.getTestsSucceededCount(),
             summary.getTimeFinished() - summary.getTimeStarted());
         summary.printFailuresTo(new PrintWriter(System.err));
+        if (!results.resourceUsage.isEmpty())
+        {
+            StringWriter resourceUsage = new StringWriter();
+            results.resourceUsage.printTo(new PrintWriter(resourceUsage));
+            LOGGER.info(resourceUsage.toString().trim());
+        }
         try 
         (
-            PrintWriter err = new PrintWriter(new File(SADDLE_LOG_DIR, loadPhase.toString().toLowerCase()) + ".err.txt");
-            PrintWriter out = new PrintWriter(new File(SADDLE_LOG_DIR, loadPhase.toString().toLowerCase()) + ".out.txt");
+            PrintWriter err = new PrintWriter(new File(outputDirectory, loadPhase.toString().toLowerCase()) + ".err.txt");
+            PrintWriter out = new PrintWriter(new File(outputDirectory, loadPhase.toString().toLowerCase()) + ".out.txt");
         )
         {
             summary.printFailuresTo(err);
             summary.printTo(out);
+            if (!results.resourceUsage.isEmpty())
+                results.resourceUsage.printTo(out);
         }
         catch (FileNotFoundException e)
         {
@@ -197,8 +828,21 @@ public class Saddle
         return System.getProperty("saddle.disable", "false").equals("true");
     }
 
+    private boolean shouldUseBackgroundDiscovery()
+    {
+        return System.getProperty("saddle.backgroundDiscovery", "false").equals("true");
+    }
+
+    private boolean shouldUseSinglePassDiscovery()
+    {
+        return System.getProperty("saddle.singlePassDiscovery", "false").equals("true");
+    }
+
     private boolean shouldExitOnTestCompletion()
     {
+        // The daemon keeps the game running after post-init
+        if (configuration.isDaemonEnabled())
+            return false;
         return System.getProperty("saddle.exitOnTestCompletion", "false").equals("true");
     }
 }
@@ -1,18 +1,46 @@
 package io.github.daomephsta.saddle;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.platform.engine.DiscoverySelector;
 import org.junit.platform.engine.Filter;
 import org.junit.platform.engine.discovery.ClassNameFilter;
+import org.junit.platform.engine.discovery.ClassSelector;
+import org.junit.platform.engine.discovery.ClasspathRootSelector;
 import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.engine.discovery.MethodSelector;
 import org.junit.platform.engine.discovery.PackageNameFilter;
+import org.junit.platform.engine.discovery.PackageSelector;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import org.junit.platform.launcher.TagFilter;
 
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.reflect.TypeToken;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
@@ -25,26 +53,39 @@ import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
 
 import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+import io.github.daomephsta.saddle.engine.TestOrder;
 import net.minecraft.util.JsonUtils;
 
 public class SaddleConfiguration
 {
+    private static final Splitter DOT = Splitter.on('.'),
+                                   // Commas outside parentheses, as method selectors separate their parameter types with commas
+                                   SELECTOR_SEPARATOR = Splitter.onPattern(",(?![^(]*\\))").omitEmptyStrings().trimResults(),
+                                   PATH_SEPARATOR = Splitter.on(File.pathSeparatorChar).omitEmptyStrings().trimResults();
+    private static final String CLASSPATH_ROOT_PREFIX = "root:";
     private static final Gson DESERIALISER = new GsonBuilder()
         .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
         .registerTypeAdapter(LoadPhase.class, (JsonDeserializer<LoadPhase>) (json, type, context)
             -> LoadPhase.valueOf(JsonUtils.getString(json, "load_phase").toUpperCase()))
-        .registerTypeAdapter(SaddleConfiguration.class, (JsonDeserializer<SaddleConfiguration>) (json, type, context)
-            -> new SaddleConfiguration(context.deserialize(json, new TypeToken<Map<LoadPhase, PhaseConfiguration>>() {}.getType())))
+        .registerTypeAdapter(SaddleConfiguration.class, new Deserialiser())
         .registerTypeAdapter(PhaseConfiguration.class, new PhaseConfiguration.Deserialiser())
         .registerTypeAdapter(DiscoverySelector.class, new SelectorDeserialiser())
-        .registerTypeAdapter(new TypeToken<Filter<String>>() {}.getType(), new FilterDeserialiser())
+        .registerTypeAdapter(new TypeToken<Filter<?>>() {}.getType(), new FilterDeserialiser())
         .create();
     
     private final Map<LoadPhase, PhaseConfiguration> phaseConfigurations;
+    private final JsonObject settings;
+    private final Optional<DiscoverySelector[]> selectorOverride;
+    private final Map<URI, Set<String>> classpathRootClasses = new ConcurrentHashMap<>();
     
-    private SaddleConfiguration(Map<LoadPhase, PhaseConfiguration> phaseConfigurations)
+    private SaddleConfiguration(Map<LoadPhase, PhaseConfiguration> phaseConfigurations, JsonObject settings)
     {
         this.phaseConfigurations = phaseConfigurations;
+        this.settings = settings;
+        this.selectorOverride = Optional.ofNullable(System.getProperty("saddle.select"))
+            .map(selectors -> SELECTOR_SEPARATOR.splitToList(selectors).stream()
+                .map(SaddleConfiguration::parseSelector)
+                .toArray(DiscoverySelector[]::new));
     }
     
     public static SaddleConfiguration from(InputStream inputStream)
@@ -61,38 +102,433 @@ public class SaddleConfiguration
     
     public DiscoverySelector[] getSelectors(LoadPhase loadPhase)
     {
-        return phaseConfigurations.getOrDefault(loadPhase, PhaseConfiguration.NONE).includes;
+        return getPhaseConfiguration(loadPhase).includes;
     }
     
-    public Filter<String>[] getFilters(LoadPhase loadPhase)
+    public Filter<?>[] getFilters(LoadPhase loadPhase)
     {
-        return phaseConfigurations.getOrDefault(loadPhase, PhaseConfiguration.NONE).excludes;
+        return getPhaseConfiguration(loadPhase).filters;
+    }
+
+    /**
+     * @return the selectors of {@code -Dsaddle.select}, a comma separated list of selectors parsed by 
+     * {@link #parseSelector(String)}, if present. They replace the includes and excludes of every phase, 
+     * so tests without a load phase must be limited to {@link #getConfiguredPhase(String, String)}.
+     */
+    public Optional<DiscoverySelector[]> getSelectorOverride()
+    {
+        return selectorOverride;
+    }
+
+    private PhaseConfiguration getPhaseConfiguration(LoadPhase loadPhase)
+    {
+        return selectorOverride
+            .map(PhaseConfiguration::new)
+            .orElseGet(() -> phaseConfigurations.getOrDefault(loadPhase, PhaseConfiguration.NONE));
+    }
+
+    public boolean isParallelExecutionEnabled()
+    {
+        return getBoolean("saddle.parallel", "parallel.enabled", false);
+    }
+
+    public int getParallelism()
+    {
+        return getInt("saddle.parallelism", "parallel.parallelism", Runtime.getRuntime().availableProcessors());
+    }
+
+    public boolean isNdjsonReportEnabled()
+    {
+        return getBoolean("saddle.reports.ndjson", "reports.ndjson", true);
+    }
+
+    public boolean isJunitXmlReportEnabled()
+    {
+        return getBoolean("saddle.reports.junitXml", "reports.junit_xml", true);
+    }
+
+    public double getBenchmarkRegressionThreshold()
+    {
+        return getDouble("saddle.benchmark.regressionThreshold", "benchmark.regression_threshold", 0.1);
+    }
+
+    public boolean shouldFailOnBenchmarkRegression()
+    {
+        return getBoolean("saddle.benchmark.failOnRegression", "benchmark.fail_on_regression", false);
+    }
+
+    public boolean shouldUpdateBenchmarkBaseline()
+    {
+        return getBoolean("saddle.benchmark.updateBaseline", "benchmark.update_baseline", false);
+    }
+
+    /**
+     * @return true if tests should be selected from the test index, when there is one, instead of by scanning
+     */
+    public boolean isIndexEnabled()
+    {
+        return getBoolean("saddle.index", "index", false);
+    }
+
+    public boolean isIncrementalSelectionEnabled()
+    {
+        return getBoolean("saddle.incremental", "incremental", false);
+    }
+
+    public TestOrder getTestOrder()
+    {
+        return getSetting("saddle.order", "order").map(order -> TestOrder.valueOf(order.toUpperCase(Locale.ROOT))).orElse(TestOrder.DEFAULT);
+    }
+
+    public boolean isFailFastEnabled()
+    {
+        return getBoolean("saddle.failFast", "fail_fast", false);
+    }
+
+    public boolean isDaemonEnabled()
+    {
+        return getBoolean("saddle.daemon", "daemon.enabled", false);
+    }
+
+    public int getDaemonPort()
+    {
+        return getInt("saddle.daemon.port", "daemon.port", 0);
+    }
+
+    public long getAllocationBudgetBytes()
+    {
+        return getLong("saddle.budget.allocatedBytes", "budget.allocated_bytes", -1);
+    }
+
+    public long getCpuBudgetMillis()
+    {
+        return getLong("saddle.budget.cpuMillis", "budget.cpu_ms", -1);
+    }
+
+    public Optional<Shard> getShard()
+    {
+        return getSetting("saddle.shard", "sharding.shard").map(Shard::parse);
+    }
+
+    /**
+     * @return a test history to weight shards by, usually one merged from a previous sharded run
+     */
+    public Optional<File> getShardWeights()
+    {
+        return getSetting("saddle.shard.weights", "sharding.weights").map(File::new);
+    }
+
+    public boolean isJmxEnabled()
+    {
+        return getBoolean("saddle.jmx", "jmx", false);
+    }
+
+    public long getTestTimeoutMillis()
+    {
+        return getLong("saddle.watchdog.testTimeoutMs", "watchdog.test_timeout_ms", 0);
+    }
+
+    public long getPhaseTimeoutMillis()
+    {
+        return getLong("saddle.watchdog.phaseTimeoutMs", "watchdog.phase_timeout_ms", 0);
+    }
+
+    public long getTestGracePeriodMillis()
+    {
+        return getLong("saddle.watchdog.gracePeriodMs", "watchdog.grace_period_ms", 10_000);
+    }
+
+    public int getTickBudgetMillis()
+    {
+        return getInt("saddle.tick.budgetMs", "tick.budget_ms", 10);
+    }
+
+    /**
+     * @return true if each phase should load its test classes from the phase test classpath with its own class loader, 
+     * which is closed once the phase has run, so that its classes can be unloaded
+     */
+    public boolean usesPhaseClassLoaders()
+    {
+        return getBoolean("saddle.memory.phaseClassLoaders", "memory.phase_class_loaders", false);
+    }
+
+    public boolean shouldLogRetainedHeap()
+    {
+        return getBoolean("saddle.memory.logRetainedHeap", "memory.log_retained_heap", false);
+    }
+
+    public List<URL> getPhaseTestClasspath()
+    {
+        return getClasspath("saddle.memory.testClasspath", "memory.test_classpath");
+    }
+
+    public List<URL> getDaemonTestClasspath()
+    {
+        return getClasspath("saddle.daemon.testClasspath", "daemon.test_classpath");
+    }
+
+    private List<URL> getClasspath(String systemProperty, String settingPath)
+    {
+        List<URL> testClasspath = new ArrayList<>();
+        for (String path : getSetting(systemProperty, settingPath)
+            .map(PATH_SEPARATOR::split).orElse(Collections.emptyList()))
+        {
+            try
+            {
+                testClasspath.add(new File(path).toURI().toURL());
+            }
+            catch (MalformedURLException e)
+            {
+                throw new IllegalArgumentException("Invalid test classpath entry " + path, e);
+            }
+        }
+        return testClasspath;
+    }
+
+    /**
+     * Gets a setting, preferring the system property {@code systemProperty} over
+     * the setting at {@code settingPath}, a dot separated path into saddle-config.json
+     */
+    private Optional<String> getSetting(String systemProperty, String settingPath)
+    {
+        String propertyValue = System.getProperty(systemProperty);
+        if (propertyValue != null)
+            return Optional.of(propertyValue);
+        JsonElement setting = settings;
+        for (String key : DOT.split(settingPath))
+        {
+            if (!setting.isJsonObject() || !setting.getAsJsonObject().has(key))
+                return Optional.empty();
+            setting = setting.getAsJsonObject().get(key);
+        }
+        return Optional.of(setting.getAsString());
+    }
+
+    private boolean getBoolean(String systemProperty, String settingPath, boolean fallback)
+    {
+        return getSetting(systemProperty, settingPath).map(Boolean::parseBoolean).orElse(fallback);
+    }
+
+    private int getInt(String systemProperty, String settingPath, int fallback)
+    {
+        return getSetting(systemProperty, settingPath).map(Integer::parseInt).orElse(fallback);
+    }
+
+    private long getLong(String systemProperty, String settingPath, long fallback)
+    {
+        return getSetting(systemProperty, settingPath).map(Long::parseLong).orElse(fallback);
+    }
+
+    private double getDouble(String systemProperty, String settingPath, double fallback)
+    {
+        return getSetting(systemProperty, settingPath).map(Double::parseDouble).orElse(fallback);
+    }
+
+    /**
+     * @return true if the includes of {@code loadPhase} select {@code methodName} of {@code className}, 
+     * and no class name filter excludes it. Filters on other things, e.g. tags, are left to discovery.
+     */
+    public boolean selects(LoadPhase loadPhase, String className, String methodName)
+    {
+        return selects(getPhaseConfiguration(loadPhase), className, methodName);
+    }
+
+    /**
+     * @return the first phase whose configured includes select {@code methodName} of {@code className}, ignoring 
+     * {@code -Dsaddle.select}, or {@link LoadPhase#PRE_INIT} if none do
+     */
+    public LoadPhase getConfiguredPhase(String className, String methodName)
+    {
+        return Stream.of(LoadPhase.values())
+            .filter(loadPhase -> selects(phaseConfigurations.getOrDefault(loadPhase, PhaseConfiguration.NONE), className, methodName))
+            .findFirst()
+            .orElse(LoadPhase.PRE_INIT);
+    }
+
+    private boolean selects(PhaseConfiguration phaseConfiguration, String className, String methodName)
+    {
+        return Arrays.stream(phaseConfiguration.includes).anyMatch(selector -> selects(selector, className, methodName))
+            && Arrays.stream(phaseConfiguration.filters)
+                .filter(filter -> !(filter instanceof PostDiscoveryFilter))
+                .allMatch(filter -> applyToClassName(filter, className));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean applyToClassName(Filter<?> filter, String className)
+    {
+        // Every other filter is a class or package name filter
+        return ((Filter<String>) filter).apply(className).included();
+    }
+
+    private boolean selects(DiscoverySelector selector, String className, String methodName)
+    {
+        if (selector instanceof PackageSelector)
+        {
+            String packageName = ((PackageSelector) selector).getPackageName();
+            return packageName.isEmpty() || className.startsWith(packageName + '.');
+        }
+        else if (selector instanceof ClassSelector)
+        {
+            String selectedClassName = ((ClassSelector) selector).getClassName();
+            // Nested test classes are discovered through their enclosing class
+            return className.equals(selectedClassName) || className.startsWith(selectedClassName + '$');
+        }
+        else if (selector instanceof MethodSelector)
+        {
+            MethodSelector methodSelector = (MethodSelector) selector;
+            return className.equals(methodSelector.getClassName()) && methodName.equals(methodSelector.getMethodName());
+        }
+        else if (selector instanceof ClasspathRootSelector)
+            return getClasspathRootClasses(((ClasspathRootSelector) selector).getClasspathRoot()).contains(className);
+        return false;
+    }
+
+    /**
+     * @return the names of the classes in the directory or jar {@code classpathRoot}, listed once per root
+     */
+    private Set<String> getClasspathRootClasses(URI classpathRoot)
+    {
+        return classpathRootClasses.computeIfAbsent(classpathRoot, root ->
+        {
+            Path rootPath = Paths.get(root);
+            try
+            {
+                if (Files.isDirectory(rootPath))
+                {
+                    try (Stream<Path> files = Files.walk(rootPath))
+                    {
+                        return files.map(file -> rootPath.relativize(file).toString().replace(File.separatorChar, '/'))
+                            .filter(file -> file.endsWith(".class"))
+                            .map(SaddleConfiguration::toClassName)
+                            .collect(Collectors.toSet());
+                    }
+                }
+                try (JarFile jar = new JarFile(rootPath.toFile()))
+                {
+                    return jar.stream()
+                        .map(JarEntry::getName)
+                        .filter(entry -> entry.endsWith(".class"))
+                        .map(SaddleConfiguration::toClassName)
+                        .collect(Collectors.toSet());
+                }
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException("Failed to list the classes of classpath root " + rootPath, e);
+            }
+        });
+    }
+
+    private static String toClassName(String classFile)
+    {
+        return classFile.substring(0, classFile.length() - ".class".length()).replace('/', '.');
+    }
+
+    /**
+     * Parses {@code root:path/to/dir-or.jar} as a classpath root selector, {@code foo.bar.Baz#qux} as a method selector, 
+     * {@code foo.bar.*} as a package selector, and anything else as a class selector
+     */
+    public static DiscoverySelector parseSelector(String selector)
+    {
+        if (selector.startsWith(CLASSPATH_ROOT_PREFIX))
+            return selectClasspathRoot(selector.substring(CLASSPATH_ROOT_PREFIX.length()));
+        else if (selector.contains("#"))
+            return DiscoverySelectors.selectMethod(selector);
+        else if (selector.endsWith(".*"))
+            return DiscoverySelectors.selectPackage(selector.substring(0, selector.length() - 2));
+        else
+            return DiscoverySelectors.selectClass(selector);
+    }
+
+    private static DiscoverySelector selectClasspathRoot(String path)
+    {
+        return DiscoverySelectors.selectClasspathRoots(Collections.singleton(Paths.get(path))).stream()
+            .findFirst()
+            .orElseThrow(() -> new JsonSyntaxException("Classpath root " + path + " does not exist"));
     }
 
     @Override
     public String toString()
     {
-        return String.format("SaddleConfiguration [phaseConfigurations=%s]", phaseConfigurations);
+        return String.format("SaddleConfiguration [phaseConfigurations=%s, settings=%s]", phaseConfigurations, settings);
+    }
+
+    private static class Deserialiser implements JsonDeserializer<SaddleConfiguration>
+    {
+        // The dotted paths of every setting read through getSetting()
+        private static final Set<String> SETTINGS = ImmutableSet.of(
+            "parallel.enabled", "parallel.parallelism", 
+            "reports.ndjson", "reports.junit_xml", 
+            "benchmark.regression_threshold", "benchmark.fail_on_regression", "benchmark.update_baseline", 
+            "index", "incremental", "order", "fail_fast", 
+            "daemon.enabled", "daemon.port", "daemon.test_classpath", 
+            "tick.budget_ms", 
+            "budget.allocated_bytes", "budget.cpu_ms", 
+            "sharding.shard", "sharding.weights", 
+            "jmx", 
+            "watchdog.test_timeout_ms", "watchdog.grace_period_ms", "watchdog.phase_timeout_ms", 
+            "memory.phase_class_loaders", "memory.test_classpath", "memory.log_retained_heap");
+
+        @Override
+        public SaddleConfiguration deserialize(JsonElement json, Type type, JsonDeserializationContext context) throws JsonParseException
+        {
+            JsonObject jsonObj = JsonUtils.getJsonObject(json, "root");
+            Map<LoadPhase, PhaseConfiguration> phaseConfigurations = new EnumMap<>(LoadPhase.class);
+            JsonObject settings = new JsonObject();
+            for (Map.Entry<String, JsonElement> entry : jsonObj.entrySet())
+            {
+                Optional<LoadPhase> loadPhase = Arrays.stream(LoadPhase.values())
+                    .filter(phase -> phase.name().equalsIgnoreCase(entry.getKey()))
+                    .findFirst();
+                if (loadPhase.isPresent())
+                    phaseConfigurations.put(loadPhase.get(), context.deserialize(entry.getValue(), PhaseConfiguration.class));
+                else
+                {
+                    validateSetting(entry.getKey(), entry.getValue());
+                    settings.add(entry.getKey(), entry.getValue());
+                }
+            }
+            return new SaddleConfiguration(phaseConfigurations, settings);
+        }
+
+        /**
+         * Rejects unknown settings, so that a misspelt setting fails loudly rather than silently keeping its default
+         */
+        private static void validateSetting(String path, JsonElement value)
+        {
+            if (SETTINGS.contains(path))
+                return;
+            String prefix = path + '.';
+            if (!value.isJsonObject() || SETTINGS.stream().noneMatch(setting -> setting.startsWith(prefix)))
+                throw new JsonSyntaxException("Unknown setting " + path);
+            for (Map.Entry<String, JsonElement> child : value.getAsJsonObject().entrySet())
+                validateSetting(prefix + child.getKey(), child.getValue());
+        }
     }
 
     private static class PhaseConfiguration
     {
-        @SuppressWarnings("unchecked")
-        static final PhaseConfiguration NONE = new PhaseConfiguration(new DiscoverySelector[0], new Filter[0]);
+        static final PhaseConfiguration NONE = new PhaseConfiguration(new DiscoverySelector[0]);
         
         final DiscoverySelector[] includes;
-        final Filter<String>[] excludes;
+        // Include filters, and exclude filters
+        final Filter<?>[] filters;
         
-        private PhaseConfiguration(DiscoverySelector[] includes, Filter<String>[] excludes)
+        private PhaseConfiguration(DiscoverySelector[] includes, Filter<?>[] filters)
         {
             this.includes = includes;
-            this.excludes = excludes;
+            this.filters = filters;
+        }
+
+        private PhaseConfiguration(DiscoverySelector[] includes)
+        {
+            this(includes, new Filter<?>[0]);
         }
 
         @Override
         public String toString()
         {
-            return String.format("PhaseConfiguration [includes=%s, excludes=%s]", Arrays.toString(includes), Arrays.toString(excludes));
+            return String.format("PhaseConfiguration [includes=%s, filters=%s]", Arrays.toString(includes), Arrays.toString(filters));
         }
 
         private static class Deserialiser implements JsonDeserializer<PhaseConfiguration>
@@ -101,14 +537,35 @@ public class SaddleConfiguration
             public PhaseConfiguration deserialize(JsonElement json, Type type, JsonDeserializationContext context) throws JsonParseException
             {
                 JsonObject jsonObj = JsonUtils.getJsonObject(json, "phase_configuration");
-                DiscoverySelector[] includes = jsonObj.has("include") 
-                    ? context.deserialize(jsonObj.get("include"), DiscoverySelector[].class)
-                    : new DiscoverySelector[0];
-                @SuppressWarnings("unchecked")
-                Filter<String>[] excludes = jsonObj.has("exclude") 
-                    ? context.deserialize(jsonObj.get("exclude"), Filter[].class)
-                    : new Filter[0];
-                return new PhaseConfiguration(includes, excludes);
+                List<DiscoverySelector> includes = new ArrayList<>();
+                List<String> includedClassPatterns = new ArrayList<>(),
+                             includedTags = new ArrayList<>();
+                List<Filter<?>> filters = new ArrayList<>();
+                if (jsonObj.has("include"))
+                {
+                    for (JsonElement include : JsonUtils.getJsonArray(jsonObj, "include"))
+                    {
+                        JsonObject includeObj = JsonUtils.getJsonObject(include, "include");
+                        // Include filters narrow the selected tests, rather than selecting tests themselves
+                        if (includeObj.has("class_pattern"))
+                            includedClassPatterns.add(JsonUtils.getString(includeObj, "class_pattern"));
+                        else if (includeObj.has("tag"))
+                            includedTags.add(JsonUtils.getString(includeObj, "tag"));
+                        else
+                            includes.add(context.deserialize(include, DiscoverySelector.class));
+                    }
+                }
+                // Each filter must include a test, so patterns and tags are combined into one filter each
+                if (!includedClassPatterns.isEmpty())
+                    filters.add(ClassNameFilter.includeClassNamePatterns(includedClassPatterns.toArray(new String[0])));
+                if (!includedTags.isEmpty())
+                    filters.add(TagFilter.includeTags(includedTags));
+                if (jsonObj.has("exclude"))
+                {
+                    for (JsonElement exclude : JsonUtils.getJsonArray(jsonObj, "exclude"))
+                        filters.add(context.deserialize(exclude, new TypeToken<Filter<?>>() {}.getType()));
+                }
+                return new PhaseConfiguration(includes.toArray(new DiscoverySelector[0]), filters.toArray(new Filter<?>[0]));
             }
         }
     }
@@ -125,15 +582,19 @@ public class SaddleConfiguration
                     return DiscoverySelectors.selectPackage(JsonUtils.getString(jsonObj, "package"));
                 else if (jsonObj.has("class"))
                     return DiscoverySelectors.selectClass(JsonUtils.getString(jsonObj, "class"));
+                else if (jsonObj.has("method"))
+                    return DiscoverySelectors.selectMethod(JsonUtils.getString(jsonObj, "method"));
+                else if (jsonObj.has("classpath_root"))
+                    return selectClasspathRoot(JsonUtils.getString(jsonObj, "classpath_root"));
             }
             throw new JsonSyntaxException("Don't know how to parse " + json);
         }
     }
     
-    private static class FilterDeserialiser implements JsonDeserializer<Filter<String>>
+    private static class FilterDeserialiser implements JsonDeserializer<Filter<?>>
     {
         @Override
-        public Filter<String> deserialize(JsonElement json, Type type, JsonDeserializationContext context) throws JsonParseException
+        public Filter<?> deserialize(JsonElement json, Type type, JsonDeserializationContext context) throws JsonParseException
         {
             JsonObject jsonObj = JsonUtils.getJsonObject(json, "exclude");
             if (jsonObj.entrySet().size() == 1)
@@ -142,6 +603,10 @@ public class SaddleConfiguration
                     return PackageNameFilter.excludePackageNames(JsonUtils.getString(jsonObj, "package"));
                 else if (jsonObj.has("class"))
                     return ClassNameFilter.excludeClassNamePatterns(JsonUtils.getString(jsonObj, "class"));
+                else if (jsonObj.has("class_pattern"))
+                    return ClassNameFilter.excludeClassNamePatterns(JsonUtils.getString(jsonObj, "class_pattern"));
+                else if (jsonObj.has("tag"))
+                    return TagFilter.excludeTags(JsonUtils.getString(jsonObj, "tag"));
             }
             throw new JsonSyntaxException("Don't know how to parse " + json);
         }
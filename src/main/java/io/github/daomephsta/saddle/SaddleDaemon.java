@@ -0,0 +1,128 @@
+package io.github.daomephsta.saddle;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.platform.engine.DiscoverySelector;
+
+import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+
+/**
+ * Listens on a localhost socket for requests to re-run tests. Each request is one line:
+ * <pre>
+ * run [all|&lt;phase&gt;[,&lt;phase&gt;...]] [&lt;selector&gt;...]
+ * stop
+ * </pre>
+ * Selectors are parsed by {@link SaddleConfiguration#parseSelector(String)}, and replace the configured selectors.
+ * The results are written back to the socket, followed by a line containing {@code done}. 
+ * Requests are handled one at a time, and the {@link RerunHandler} decides which thread re-runs tests.
+ */
+class SaddleDaemon
+{
+    private static final Logger LOGGER = LogManager.getLogger("Saddle");
+    
+    private final ServerSocket serverSocket;
+    private final RerunHandler rerunHandler;
+
+    interface RerunHandler
+    {
+        /**
+         * @param selectorOverride selectors that replace the configured selectors, or null to use the configured selectors
+         */
+        void rerun(List<LoadPhase> loadPhases, DiscoverySelector[] selectorOverride, PrintWriter output);
+    }
+
+    SaddleDaemon(int port, RerunHandler rerunHandler) throws IOException
+    {
+        this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        this.rerunHandler = rerunHandler;
+    }
+
+    void start()
+    {
+        Thread daemonThread = new Thread(this::acceptRequests, "Saddle Daemon");
+        daemonThread.setDaemon(true);
+        daemonThread.start();
+    }
+
+    int getPort()
+    {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptRequests()
+    {
+        while (!serverSocket.isClosed())
+        {
+            // One client at a time, as test runs can't overlap
+            try (Socket client = serverSocket.accept();
+                BufferedReader input = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter output = new PrintWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8), true))
+            {
+                for (String request = input.readLine(); request != null; request = input.readLine())
+                {
+                    if (request.trim().isEmpty())
+                        continue;
+                    try
+                    {
+                        handleRequest(request.trim(), output);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        LOGGER.error("Saddle daemon failed to handle {}", request, e);
+                        e.printStackTrace(output);
+                    }
+                    output.println("done");
+                }
+            }
+            catch (IOException e)
+            {
+                if (!serverSocket.isClosed())
+                    LOGGER.error("Saddle daemon request failed", e);
+            }
+        }
+    }
+
+    private void handleRequest(String request, PrintWriter output) throws IOException
+    {
+        String[] arguments = request.split("\\s+");
+        switch (arguments[0])
+        {
+        case "run":
+            List<LoadPhase> loadPhases = arguments.length < 2 || arguments[1].equals("all") 
+                ? Arrays.asList(LoadPhase.values()) 
+                : parseLoadPhases(arguments[1]);
+            DiscoverySelector[] selectorOverride = arguments.length > 2 
+                ? Arrays.stream(arguments, 2, arguments.length).map(SaddleConfiguration::parseSelector).toArray(DiscoverySelector[]::new)
+                : null;
+            LOGGER.info("Saddle daemon re-running {}", request);
+            rerunHandler.rerun(loadPhases, selectorOverride, output);
+            break;
+        case "stop":
+            serverSocket.close();
+            break;
+        default:
+            output.println("Unknown request " + request + ". Expected 'run [all|<phase>[,<phase>...]] [<selector>...]' or 'stop'");
+        }
+    }
+
+    private static List<LoadPhase> parseLoadPhases(String loadPhases)
+    {
+        List<LoadPhase> parsed = new ArrayList<>();
+        for (String loadPhase : loadPhases.split(","))
+            parsed.add(LoadPhase.valueOf(loadPhase.toUpperCase()));
+        return parsed;
+    }
+}
@@ -0,0 +1,156 @@
+package io.github.daomephsta.saddle;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.LogManager;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+
+import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+
+/**
+ * Counts discovered and executed tests. Registered as a listener of every phase's execution.
+ */
+public class SaddleStatistics implements SaddleStatisticsMXBean, TestExecutionListener
+{
+    public static final String OBJECT_NAME = "io.github.daomephsta.saddle:type=Statistics";
+    
+    private volatile String currentPhase = "";
+    private final AtomicLong discoveredClasses = new AtomicLong(),
+                             discoveredTests = new AtomicLong(),
+                             discoveryNanos = new AtomicLong(),
+                             startedTests = new AtomicLong(),
+                             succeededTests = new AtomicLong(),
+                             failedTests = new AtomicLong(),
+                             abortedTests = new AtomicLong(),
+                             skippedTests = new AtomicLong(),
+                             executionNanos = new AtomicLong();
+
+    void register()
+    {
+        try
+        {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        }
+        catch (JMException e)
+        {
+            LogManager.getLogger("Saddle").warn("Failed to register the Saddle statistics MBean", e);
+        }
+    }
+
+    void setCurrentPhase(LoadPhase loadPhase)
+    {
+        currentPhase = loadPhase != null ? loadPhase.name() : "";
+    }
+
+    void recordDiscovery(long classes, long tests, long durationNanos)
+    {
+        discoveredClasses.addAndGet(classes);
+        discoveredTests.addAndGet(tests);
+        discoveryNanos.addAndGet(durationNanos);
+    }
+
+    void recordExecution(long durationNanos)
+    {
+        executionNanos.addAndGet(durationNanos);
+    }
+
+    @Override
+    public void executionStarted(TestIdentifier testIdentifier)
+    {
+        if (testIdentifier.isTest())
+            startedTests.incrementAndGet();
+    }
+
+    @Override
+    public void executionSkipped(TestIdentifier testIdentifier, String reason)
+    {
+        if (testIdentifier.isTest())
+            skippedTests.incrementAndGet();
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult result)
+    {
+        if (!testIdentifier.isTest())
+            return;
+        switch (result.getStatus())
+        {
+        case SUCCESSFUL:
+            succeededTests.incrementAndGet();
+            break;
+        case FAILED:
+            failedTests.incrementAndGet();
+            break;
+        case ABORTED:
+            abortedTests.incrementAndGet();
+            break;
+        }
+    }
+
+    @Override
+    public String getCurrentPhase()
+    {
+        return currentPhase;
+    }
+
+    @Override
+    public long getDiscoveredClassCount()
+    {
+        return discoveredClasses.get();
+    }
+
+    @Override
+    public long getDiscoveredTestCount()
+    {
+        return discoveredTests.get();
+    }
+
+    @Override
+    public long getDiscoveryTimeMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(discoveryNanos.get());
+    }
+
+    @Override
+    public long getStartedTestCount()
+    {
+        return startedTests.get();
+    }
+
+    @Override
+    public long getSucceededTestCount()
+    {
+        return succeededTests.get();
+    }
+
+    @Override
+    public long getFailedTestCount()
+    {
+        return failedTests.get();
+    }
+
+    @Override
+    public long getAbortedTestCount()
+    {
+        return abortedTests.get();
+    }
+
+    @Override
+    public long getSkippedTestCount()
+    {
+        return skippedTests.get();
+    }
+
+    @Override
+    public long getExecutionTimeMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(executionNanos.get());
+    }
+}
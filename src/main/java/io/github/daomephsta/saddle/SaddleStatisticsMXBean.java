@@ -0,0 +1,31 @@
+package io.github.daomephsta.saddle;
+
+/**
+ * Saddle's discovery and execution counters, published through JMX as {@value SaddleStatistics#OBJECT_NAME}
+ * when enabled. Counters are totals across all load phases of this launch.
+ */
+public interface SaddleStatisticsMXBean
+{
+    /**
+     * @return the load phase currently being executed, or an empty string if none is
+     */
+    public String getCurrentPhase();
+
+    public long getDiscoveredClassCount();
+
+    public long getDiscoveredTestCount();
+
+    public long getDiscoveryTimeMillis();
+
+    public long getStartedTestCount();
+
+    public long getSucceededTestCount();
+
+    public long getFailedTestCount();
+
+    public long getAbortedTestCount();
+
+    public long getSkippedTestCount();
+
+    public long getExecutionTimeMillis();
+}
@@ -1,20 +1,45 @@
 package io.github.daomephsta.saddle;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.Logger;
 import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.reporting.ReportEntry;
 import org.junit.platform.launcher.TestExecutionListener;
 import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
 
-import it.unimi.dsi.fastutil.objects.Object2LongMap;
-import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import io.github.daomephsta.saddle.engine.ResourceUsage;
 
+/**
+ * Logs test execution events. Safe for concurrent execution: per-test state is kept in concurrent maps,
+ * and log records are handed off to a logging thread so that log I/O doesn't count towards test timings.
+ */
 public class SaddleTestExecutionLogger implements TestExecutionListener
 {
+    private static final String[] INDENTS = new String[16];
+    static
+    {
+        for (int i = 0; i < INDENTS.length; i++)
+        {
+            char[] indent = new char[i];
+            Arrays.fill(indent, '\t');
+            INDENTS[i] = new String(indent);
+        }
+    }
+    private static final LogRecord END_OF_LOG = new LogRecord(null, null);
+
     private final Logger logger;
     private final Level logLevel;
-    private final Object2LongMap<String> testStartTimes = new Object2LongOpenHashMap<>();
-    private int indentLevel = 0;
+    private final Map<String, Execution> executions = new ConcurrentHashMap<>();
+    private final Map<String, ResourceUsage> resourceUsages = new ConcurrentHashMap<>();
+    private final BlockingQueue<LogRecord> logRecords = new LinkedBlockingQueue<>();
+    private volatile Thread loggingThread;
 
     public SaddleTestExecutionLogger(Logger logger, Level logLevel)
     {
@@ -22,48 +47,166 @@ public class SaddleTestExecutionLogger implements TestExecutionListener
         this.logLevel = logLevel;
     }
 
+    @Override
+    public void testPlanExecutionStarted(TestPlan testPlan)
+    {
+        loggingThread = new Thread(this::writeLogRecords, "Saddle Test Logger");
+        loggingThread.setDaemon(true);
+        loggingThread.start();
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan)
+    {
+        logRecords.add(END_OF_LOG);
+        try
+        {
+            // Wait for the backlog, so that it precedes anything logged after execution
+            loggingThread.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        loggingThread = null;
+    }
+
     @Override
     public void executionStarted(TestIdentifier testIdentifier)
     {
-        testStartTimes.put(testIdentifier.getUniqueId(), System.currentTimeMillis());
-        logWithIndent(logLevel, "{} started", testIdentifier.getDisplayName());
-        indentLevel++;
+        int depth = getDepth(testIdentifier);
+        log(depth, "{} started", testIdentifier.getDisplayName());
+        executions.put(testIdentifier.getUniqueId(), new Execution(depth, System.nanoTime()));
     }
 
     @Override
     public void executionSkipped(TestIdentifier testIdentifier, String reason)
     {
-        logWithIndent(logLevel, "{} skipped because {}", testIdentifier.getDisplayName(), reason);
+        log(getDepth(testIdentifier), "{} skipped because {}", testIdentifier.getDisplayName(), reason);
+    }
+
+    @Override
+    public void reportingEntryPublished(TestIdentifier testIdentifier, ReportEntry entry)
+    {
+        ResourceUsage resourceUsage = ResourceUsage.fromReportEntry(entry.getKeyValuePairs());
+        if (resourceUsage != null)
+            resourceUsages.put(testIdentifier.getUniqueId(), resourceUsage);
     }
 
     @Override
     public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult result)
     {
-        indentLevel--;
-        long runtime = System.currentTimeMillis() - testStartTimes.getLong(testIdentifier.getUniqueId());
+        long finishTime = System.nanoTime();
+        Execution execution = executions.remove(testIdentifier.getUniqueId());
+        int depth = execution != null ? execution.depth : getDepth(testIdentifier);
+        Milliseconds runtime = new Milliseconds(execution != null ? finishTime - execution.startTime : 0);
+        ResourceUsage resourceUsage = resourceUsages.remove(testIdentifier.getUniqueId());
+        Object usage = resourceUsage != null ? new ResourceUsageSuffix(resourceUsage) : "";
         switch (result.getStatus())
         {
         case ABORTED:
-            logWithIndent(logLevel, "{} aborted in {} ms", testIdentifier.getDisplayName(), runtime);
+            log(depth, "{} aborted in {} ms{}", testIdentifier.getDisplayName(), runtime, usage);
             break;
         case FAILED:
-            logWithIndent(logLevel, "{} failed in {} ms", testIdentifier.getDisplayName(), runtime);
+            log(depth, "{} failed in {} ms{}", testIdentifier.getDisplayName(), runtime, usage);
             break;
         case SUCCESSFUL:
-            logWithIndent(logLevel, "{} passed in {} ms", testIdentifier.getDisplayName(), runtime);
+            log(depth, "{} passed in {} ms{}", testIdentifier.getDisplayName(), runtime, usage);
             break;
         default:
-            logWithIndent(logLevel, "{} finished with unknown status {} in {} ms",
-                testIdentifier.getDisplayName(), result.getStatus(), runtime);
+            log(depth, "{} finished with unknown status {} in {} ms{}",
+                testIdentifier.getDisplayName(), result.getStatus(), runtime, usage);
             break;
         }
     }
 
-    private void logWithIndent(Level logLevel, String format, Object... args)
+    private int getDepth(TestIdentifier testIdentifier)
+    {
+        // Parents always start before their children
+        return testIdentifier.getParentId()
+            .map(executions::get)
+            .map(parent -> parent.depth + 1)
+            .orElse(0);
+    }
+
+    private void log(int depth, String format, Object... args)
+    {
+        String indent = depth < INDENTS.length ? INDENTS[depth] : INDENTS[INDENTS.length - 1];
+        LogRecord record = new LogRecord(indent + format, args);
+        if (loggingThread != null)
+            logRecords.add(record);
+        else
+            logger.log(logLevel, record.format, record.args);
+    }
+
+    private void writeLogRecords()
+    {
+        try
+        {
+            for (LogRecord record = logRecords.take(); record != END_OF_LOG; record = logRecords.take())
+                logger.log(logLevel, record.format, record.args);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Execution
+    {
+        final int depth;
+        final long startTime;
+
+        Execution(int depth, long startTime)
+        {
+            this.depth = depth;
+            this.startTime = startTime;
+        }
+    }
+
+    private static class LogRecord
+    {
+        final String format;
+        final Object[] args;
+
+        LogRecord(String format, Object[] args)
+        {
+            this.format = format;
+            this.args = args;
+        }
+    }
+
+    // Formatted lazily by the logging thread
+    private static class Milliseconds
     {
-        StringBuilder message = new StringBuilder(format);
-        for (int i = 0; i < indentLevel; i++)
-            message.insert(0, '\t');
-        logger.log(logLevel, message.toString(), args);
+        private final long nanos;
+
+        Milliseconds(long nanos)
+        {
+            this.nanos = nanos;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%.3f", nanos / 1_000_000.0);
+        }
+    }
+
+    // Formatted lazily by the logging thread
+    private static class ResourceUsageSuffix
+    {
+        private final ResourceUsage resourceUsage;
+
+        ResourceUsageSuffix(ResourceUsage resourceUsage)
+        {
+            this.resourceUsage = resourceUsage;
+        }
+
+        @Override
+        public String toString()
+        {
+            return " (" + resourceUsage + ")";
+        }
     }
-}   
+}
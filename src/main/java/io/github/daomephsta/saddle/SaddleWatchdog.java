@@ -0,0 +1,248 @@
+package io.github.daomephsta.saddle;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.TestTag;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+import io.github.daomephsta.saddle.engine.SaddleBenchmark;
+import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+
+/**
+ * Watches a phase's execution for hung tests. When a test exceeds the test deadline, or the phase exceeds the phase deadline, 
+ * the stacks of all threads are dumped to the output directory. Failing tests that exceed the test deadline is left to Jupiter's 
+ * default timeout, which interrupts them. Jupiter 5.5's default timeout doesn't apply to dynamic tests, so the watchdog 
+ * interrupts those itself. Tests that ignore the interrupt and are still running after the grace period, 
+ * and phases that exceed the phase deadline, are assumed to be stuck, and end the launch. Benchmarks only have the phase deadline.
+ */
+public class SaddleWatchdog implements TestExecutionListener
+{
+    private static final Logger LOGGER = LogManager.getLogger("Saddle");
+    private static final TestTag BENCHMARK_TAG = TestTag.create(SaddleBenchmark.TAG);
+    
+    private final LoadPhase loadPhase;
+    private final File outputDirectory;
+    private final long testDeadlineNanos,
+                       gracePeriodNanos,
+                       phaseDeadlineNanos;
+    private final Runnable onTimeout;
+    private final Map<String, RunningTest> runningTests = new ConcurrentHashMap<>();
+    private volatile long phaseStart;
+    private volatile Thread watchdogThread;
+
+    /**
+     * @param testDeadlineMillis the time a test may run for, in milliseconds, or 0 for no limit
+     * @param gracePeriodMillis the time a test that exceeded its deadline may take to stop, in milliseconds
+     * @param phaseDeadlineMillis the time the phase may run for, in milliseconds, or 0 for no limit
+     * @param onTimeout called on the watchdog thread if the phase times out, or a test does not stop after the grace period
+     */
+    public SaddleWatchdog(LoadPhase loadPhase, File outputDirectory, long testDeadlineMillis, long gracePeriodMillis, 
+        long phaseDeadlineMillis, Runnable onTimeout)
+    {
+        this.loadPhase = loadPhase;
+        this.outputDirectory = outputDirectory;
+        this.testDeadlineNanos = TimeUnit.MILLISECONDS.toNanos(testDeadlineMillis);
+        this.gracePeriodNanos = TimeUnit.MILLISECONDS.toNanos(gracePeriodMillis);
+        this.phaseDeadlineNanos = TimeUnit.MILLISECONDS.toNanos(phaseDeadlineMillis);
+        this.onTimeout = onTimeout;
+    }
+
+    @Override
+    public void testPlanExecutionStarted(TestPlan testPlan)
+    {
+        if (testDeadlineNanos <= 0 && phaseDeadlineNanos <= 0)
+            return;
+        phaseStart = System.nanoTime();
+        watchdogThread = new Thread(this::watch, "Saddle Watchdog");
+        watchdogThread.setDaemon(true);
+        watchdogThread.start();
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan)
+    {
+        Thread watchdogThread = this.watchdogThread;
+        this.watchdogThread = null;
+        if (watchdogThread != null)
+            watchdogThread.interrupt();
+        runningTests.clear();
+    }
+
+    @Override
+    public void executionStarted(TestIdentifier testIdentifier)
+    {
+        if (testIdentifier.isTest() && !testIdentifier.getTags().contains(BENCHMARK_TAG))
+        {
+            // Called on the thread that executes the test
+            runningTests.put(testIdentifier.getUniqueId(), new RunningTest(testIdentifier, Thread.currentThread(), System.nanoTime()));
+        }
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult)
+    {
+        RunningTest test = runningTests.remove(testIdentifier.getUniqueId());
+        if (test != null)
+            test.finish();
+    }
+
+    private void watch()
+    {
+        long smallestDeadline = Math.min(testDeadlineNanos > 0 ? testDeadlineNanos : Long.MAX_VALUE, 
+            phaseDeadlineNanos > 0 ? phaseDeadlineNanos : Long.MAX_VALUE);
+        // Check often enough to notice a timeout within a tenth of the smallest deadline
+        long interval = Math.max(10, Math.min(1000, TimeUnit.NANOSECONDS.toMillis(smallestDeadline) / 10));
+        try
+        {
+            while (watchdogThread == Thread.currentThread())
+            {
+                Thread.sleep(interval);
+                long now = System.nanoTime();
+                if (testDeadlineNanos > 0)
+                {
+                    for (RunningTest test : runningTests.values())
+                    {
+                        if (!test.dumped && now - test.startTime > testDeadlineNanos)
+                        {
+                            test.dumped = true;
+                            File dump = dumpThreads(test.testIdentifier.getDisplayName() + " exceeded its deadline of " 
+                                + TimeUnit.NANOSECONDS.toMillis(testDeadlineNanos) + " ms");
+                            LOGGER.error("{} exceeded its deadline of {} ms, thread stacks dumped to {}", 
+                                test.testIdentifier.getDisplayName(), TimeUnit.NANOSECONDS.toMillis(testDeadlineNanos), dump);
+                            if (isDynamicTest(test.testIdentifier))
+                                test.interrupt();
+                        }
+                        else if (now - test.startTime > testDeadlineNanos + gracePeriodNanos)
+                        {
+                            // Interruption didn't stop it, so the thread running it is stuck
+                            File dump = dumpThreads(test.testIdentifier.getDisplayName() + " did not stop within " 
+                                + TimeUnit.NANOSECONDS.toMillis(gracePeriodNanos) + " ms of its deadline");
+                            LOGGER.error("{} did not stop within {} ms of its deadline, thread stacks dumped to {}", 
+                                test.testIdentifier.getDisplayName(), TimeUnit.NANOSECONDS.toMillis(gracePeriodNanos), dump);
+                            onTimeout.run();
+                            return;
+                        }
+                    }
+                }
+                if (phaseDeadlineNanos > 0 && now - phaseStart > phaseDeadlineNanos)
+                {
+                    File dump = dumpThreads(loadPhase + " exceeded its deadline of " 
+                        + TimeUnit.NANOSECONDS.toMillis(phaseDeadlineNanos) + " ms");
+                    LOGGER.error("{} exceeded its deadline of {} ms with {} tests still running, thread stacks dumped to {}", 
+                        loadPhase, TimeUnit.NANOSECONDS.toMillis(phaseDeadlineNanos), runningTests.size(), dump);
+                    onTimeout.run();
+                    return;
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            // Execution finished
+        }
+    }
+
+    private boolean isDynamicTest(TestIdentifier testIdentifier)
+    {
+        return UniqueId.parse(testIdentifier.getUniqueId()).getLastSegment().getType().equals("dynamic-test");
+    }
+
+    private File dumpThreads(String reason)
+    {
+        File dump = new File(outputDirectory, String.format("%s.watchdog-%s.txt", 
+            loadPhase.toString().toLowerCase(), new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date())));
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Map<Thread, StackTraceElement[]> stackTraces = Thread.getAllStackTraces();
+        try (PrintWriter writer = new PrintWriter(dump))
+        {
+            writer.println(reason);
+            writer.println("Running tests:");
+            for (RunningTest test : runningTests.values())
+            {
+                writer.printf("\t%s for %d ms%n", test.testIdentifier.getUniqueId(), 
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - test.startTime));
+            }
+            long[] deadlocked = threads.findDeadlockedThreads();
+            if (deadlocked != null)
+            {
+                writer.println("Deadlocked threads:");
+                for (ThreadInfo info : threads.getThreadInfo(deadlocked))
+                {
+                    if (info != null)
+                        writer.printf("\t\"%s\" waiting for %s held by \"%s\"%n", info.getThreadName(), info.getLockName(), info.getLockOwnerName());
+                }
+            }
+            writer.println();
+            for (Map.Entry<Thread, StackTraceElement[]> stackTrace : stackTraces.entrySet())
+            {
+                Thread thread = stackTrace.getKey();
+                writer.printf("\"%s\" id=%d %s%s%n", thread.getName(), thread.getId(), thread.getState(), thread.isDaemon() ? " daemon" : "");
+                // ThreadInfo.toString() truncates stacks, so only lock details come from it
+                ThreadInfo info = threads.getThreadInfo(new long[] {thread.getId()}, true, true)[0];
+                if (info != null && info.getLockName() != null)
+                    writer.printf("\twaiting for %s%s%n", info.getLockName(), info.getLockOwnerName() != null ? " held by \"" + info.getLockOwnerName() + "\"" : "");
+                for (StackTraceElement element : stackTrace.getValue())
+                    writer.println("\tat " + element);
+                if (info != null)
+                {
+                    for (LockInfo lock : info.getLockedMonitors())
+                        writer.println("\tholds " + lock);
+                    for (LockInfo lock : info.getLockedSynchronizers())
+                        writer.println("\tholds " + lock);
+                }
+                writer.println();
+            }
+        }
+        catch (FileNotFoundException e)
+        {
+            LOGGER.warn("Failed to dump thread stacks to {}", dump, e);
+        }
+        return dump;
+    }
+
+    private static class RunningTest
+    {
+        final TestIdentifier testIdentifier;
+        final Thread thread;
+        final long startTime;
+        volatile boolean dumped;
+        private boolean finished;
+
+        RunningTest(TestIdentifier testIdentifier, Thread thread, long startTime)
+        {
+            this.testIdentifier = testIdentifier;
+            this.thread = thread;
+            this.startTime = startTime;
+        }
+
+        /**
+         * Interrupts the thread running the test, unless it has finished, so that the next test on that thread isn't interrupted
+         */
+        synchronized void interrupt()
+        {
+            if (!finished)
+                thread.interrupt();
+        }
+
+        synchronized void finish()
+        {
+            finished = true;
+        }
+    }
+}
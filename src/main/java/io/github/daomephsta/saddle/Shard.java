@@ -0,0 +1,71 @@
+package io.github.daomephsta.saddle;
+
+/**
+ * One of several game instances that together run a test suite, written as {@code index/count}, e.g. {@code 2/4}.
+ * Indices start at 1.
+ */
+public class Shard
+{
+    private final int index,
+                      count;
+
+    public Shard(int index, int count)
+    {
+        if (count < 1 || index < 1 || index > count)
+            throw new IllegalArgumentException("Invalid shard " + index + "/" + count);
+        this.index = index;
+        this.count = count;
+    }
+
+    public static Shard parse(String shard)
+    {
+        int separator = shard.indexOf('/');
+        if (separator == -1)
+            throw new IllegalArgumentException("Expected a shard of the form index/count, found " + shard);
+        try
+        {
+            return new Shard(Integer.parseInt(shard.substring(0, separator).trim()), 
+                Integer.parseInt(shard.substring(separator + 1).trim()));
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Expected a shard of the form index/count, found " + shard, e);
+        }
+    }
+
+    /**
+     * @param name the name of a shard's output directory, e.g. {@code shard-2-of-4}
+     * @see #getName()
+     */
+    public static Shard parseName(String name)
+    {
+        String[] parts = name.split("-");
+        if (parts.length != 4 || !parts[0].equals("shard") || !parts[2].equals("of"))
+            throw new IllegalArgumentException("Expected a shard directory of the form shard-index-of-count, found " + name);
+        return parse(parts[1] + '/' + parts[3]);
+    }
+
+    public int getIndex()
+    {
+        return index;
+    }
+
+    public int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * @return the name of this shard's output directory
+     */
+    public String getName()
+    {
+        return "shard-" + index + "-of-" + count;
+    }
+
+    @Override
+    public String toString()
+    {
+        return index + "/" + count;
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.daomephsta.saddle;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+
+/**
+ * Excludes test methods whose class belongs to another shard. Classes are assigned to shards 
+ * greedily, heaviest first, to the shard with the least estimated duration so far. Each class 
+ * weighs its total recorded duration, or the mean duration if it has none. Without durations 
+ * every class weighs the same, so classes are assigned in turn, in name order.  
+ * Classes are assigned by {@link #assignClasses(TestDescriptor)} from the unfiltered tests of a phase, 
+ * so other filters, such as incremental selection, can't change the assignment. Every shard must select 
+ * the same tests and use the same durations, or some tests will run on several shards or none.
+ */
+public class ShardFilter implements PostDiscoveryFilter
+{
+    private final Shard shard;
+    private final Map<String, Long> classDurations;
+    private Set<String> shardClasses;
+    private int classCount;
+    private long shardDuration;
+
+    /**
+     * @param shard the shard to include tests for
+     * @param classDurations recorded durations by class name in nanoseconds, possibly empty
+     */
+    public ShardFilter(Shard shard, Map<String, Long> classDurations)
+    {
+        this.shard = shard;
+        this.classDurations = classDurations;
+    }
+
+    @Override
+    public FilterResult apply(TestDescriptor descriptor)
+    {
+        if (!descriptor.getSource().filter(MethodSource.class::isInstance).isPresent())
+            return FilterResult.included("Not a test method");
+        if (shardClasses == null)
+            throw new IllegalStateException("Classes must be assigned to shards before filtering");
+        String className = getOutermostClass(((MethodSource) descriptor.getSource().get()).getClassName());
+        return shardClasses.contains(className) 
+            ? FilterResult.included("In shard " + shard)
+            : FilterResult.excluded("Not in shard " + shard);
+    }
+
+    // Nested classes stay with their outermost class, so that they share its instance and lifecycle 
+    private static String getOutermostClass(String className)
+    {
+        int nestedSeparator = className.indexOf('$');
+        return nestedSeparator != -1 ? className.substring(0, nestedSeparator) : className;
+    }
+
+    /**
+     * Assigns the classes of the test methods under {@code root} to shards. Pass it every test selected for the phase, 
+     * before any filtering, e.g. from {@link io.github.daomephsta.saddle.engine.SaddleTestEngine#setDiscoveryListener}.
+     */
+    public void assignClasses(TestDescriptor root)
+    {
+        Set<String> classNames = new TreeSet<>();
+        for (TestDescriptor descendant : root.getDescendants())
+        {
+            descendant.getSource()
+                .filter(MethodSource.class::isInstance)
+                .ifPresent(source -> classNames.add(getOutermostClass(((MethodSource) source).getClassName())));
+        }
+        assignClasses(classNames);
+    }
+
+    private void assignClasses(Set<String> classNames)
+    {
+        Map<String, Long> weights = new HashMap<>();
+        for (Map.Entry<String, Long> classDuration : classDurations.entrySet())
+            weights.merge(getOutermostClass(classDuration.getKey()), classDuration.getValue(), Long::sum);
+        long meanWeight = Math.max(1, (long) weights.values().stream().mapToLong(Long::longValue).average().orElse(1));
+        
+        List<String> heaviestFirst = new ArrayList<>(classNames);
+        heaviestFirst.sort(Comparator.<String>comparingLong(className -> weights.getOrDefault(className, meanWeight)).reversed()
+            .thenComparing(Comparator.naturalOrder()));
+        long[] shardDurations = new long[shard.getCount()];
+        shardClasses = new TreeSet<>();
+        for (String className : heaviestFirst)
+        {
+            int lightest = 0;
+            for (int i = 1; i < shardDurations.length; i++)
+            {
+                if (shardDurations[i] < shardDurations[lightest])
+                    lightest = i;
+            }
+            shardDurations[lightest] += weights.getOrDefault(className, meanWeight);
+            if (lightest == shard.getIndex() - 1)
+                shardClasses.add(className);
+        }
+        classCount = classNames.size();
+        shardDuration = classDurations.isEmpty() ? 0 : shardDurations[shard.getIndex() - 1];
+    }
+
+    Set<String> getShardClasses()
+    {
+        return shardClasses;
+    }
+
+    /**
+     * @return the number of classes assigned to this shard
+     */
+    public int getShardClassCount()
+    {
+        return shardClasses != null ? shardClasses.size() : 0;
+    }
+
+    /**
+     * @return the number of classes assigned to any shard
+     */
+    public int getClassCount()
+    {
+        return classCount;
+    }
+
+    /**
+     * @return the estimated duration of this shard in nanoseconds, or 0 if no durations were recorded
+     */
+    public long getEstimatedDuration()
+    {
+        return shardDuration;
+    }
+}
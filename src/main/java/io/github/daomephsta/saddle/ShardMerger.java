@@ -0,0 +1,374 @@
+package io.github.daomephsta.saddle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+
+/**
+ * Merges the output of sharded runs into the Saddle log directory, as if the suite had run in one game instance. 
+ * For each phase the NDJSON and JUnit XML reports are concatenated, and a summary and the failures are written 
+ * from the NDJSON records. The test histories are merged into {@code history.json}, which can weight later sharded runs.  
+ * A shard whose JUnit XML can't be parsed, e.g. because it crashed mid-phase, is reported as incomplete, and its 
+ * test cases are taken from its NDJSON report instead. The shard directories must be those of every shard of one run, 
+ * so missing shards, shards with no reports, and directories of runs with a different shard count are reported too.  
+ * Usage: {@code ShardMerger [saddle log directory]}. Exits with status 1 if any test or container failed, 
+ * or the shards are incomplete, or 2 if no shard output was found.
+ */
+public class ShardMerger
+{
+    private final File saddleLogDir;
+    private final List<File> shardDirs;
+
+    public ShardMerger(File saddleLogDir)
+    {
+        this.saddleLogDir = saddleLogDir;
+        File[] shardDirs = saddleLogDir.listFiles(file -> file.isDirectory() && file.getName().startsWith("shard-"));
+        this.shardDirs = shardDirs != null ? Arrays.asList(shardDirs) : new ArrayList<>();
+        this.shardDirs.sort(null);
+    }
+
+    public static void main(String[] args)
+    {
+        ShardMerger merger = new ShardMerger(new File(args.length > 0 ? args[0] : "logs/saddle"));
+        if (merger.shardDirs.isEmpty())
+        {
+            System.err.println("No shard output found in " + merger.saddleLogDir);
+            System.exit(2);
+        }
+        try
+        {
+            System.exit(merger.merge(new PrintWriter(System.out, true)) ? 0 : 1);
+        }
+        catch (IOException | ParserConfigurationException | TransformerException e)
+        {
+            e.printStackTrace();
+            System.exit(2);
+        }
+    }
+
+    /**
+     * @return true if the shards are every shard of one run and complete, and every test in every shard passed or was skipped
+     */
+    public boolean merge(PrintWriter summary) throws IOException, ParserConfigurationException, TransformerException
+    {
+        summary.printf("Merging %d shards%n", shardDirs.size());
+        List<String> problems = checkShards();
+        for (String problem : problems)
+            summary.println(problem);
+        boolean passed = problems.isEmpty();
+        for (LoadPhase loadPhase : LoadPhase.values())
+        {
+            String phaseName = loadPhase.toString().toLowerCase();
+            List<File> incompleteShards = new ArrayList<>();
+            // Counted from the JUnit XML too, so failures fail the merge without NDJSON reports
+            int junitXmlFailures = mergeJunitXml(phaseName, incompleteShards);
+            passed &= junitXmlFailures == 0;
+            for (File incompleteShard : incompleteShards)
+            {
+                summary.printf("%s: %s is incomplete, its JUnit XML report could not be parsed, so its NDJSON report was used%n", 
+                    loadPhase, incompleteShard.getName());
+                passed = false;
+            }
+            PhaseTotals totals = mergeNdjson(phaseName);
+            if (totals == null)
+            {
+                if (junitXmlFailures > 0)
+                    summary.printf("%s: %d failed tests or containers%n", loadPhase, junitXmlFailures);
+                continue;
+            }
+            try 
+            (
+                PrintWriter err = new PrintWriter(new File(saddleLogDir, phaseName + ".err.txt"), "UTF-8");
+                PrintWriter out = new PrintWriter(new File(saddleLogDir, phaseName + ".out.txt"), "UTF-8");
+            )
+            {
+                err.print(totals.failures);
+                totals.printTo(out, loadPhase);
+            }
+            totals.printTo(summary, loadPhase);
+            passed &= totals.failed == 0 && totals.failedContainers == 0;
+        }
+        TestHistory history = TestHistory.load(new File(saddleLogDir, "history.json"));
+        for (File shardDir : shardDirs)
+            history.putAll(TestHistory.load(new File(shardDir, "history.json")));
+        history.save();
+        return passed;
+    }
+
+    /**
+     * @return descriptions of shard directories that are missing, empty, misnamed, or from a run with a different shard count
+     */
+    private List<String> checkShards()
+    {
+        List<String> problems = new ArrayList<>();
+        Map<Integer, SortedSet<Integer>> indicesByCount = new TreeMap<>();
+        for (File shardDir : shardDirs)
+        {
+            Shard shard;
+            try
+            {
+                shard = Shard.parseName(shardDir.getName());
+            }
+            catch (IllegalArgumentException e)
+            {
+                problems.add(shardDir.getName() + " is not a shard output directory: " + e.getMessage());
+                continue;
+            }
+            indicesByCount.computeIfAbsent(shard.getCount(), count -> new TreeSet<>()).add(shard.getIndex());
+            String[] reports = shardDir.list((dir, name) -> name.endsWith(".ndjson") || name.endsWith(".xml"));
+            if (reports == null || reports.length == 0)
+                problems.add(shardDir.getName() + " has no reports, it may have crashed before running any tests");
+        }
+        if (indicesByCount.size() > 1)
+        {
+            problems.add("Found shards of runs with " + indicesByCount.keySet() + " shards. " 
+                + "Remove the directories of earlier runs, as their results are merged too");
+        }
+        for (Map.Entry<Integer, SortedSet<Integer>> shards : indicesByCount.entrySet())
+        {
+            int count = shards.getKey();
+            for (int index = 1; index <= count; index++)
+            {
+                if (!shards.getValue().contains(index))
+                    problems.add("Shard " + new Shard(index, count) + " is missing");
+            }
+        }
+        return problems;
+    }
+
+    private PhaseTotals mergeNdjson(String phaseName) throws IOException
+    {
+        List<File> shardReports = getShardFiles(phaseName + ".ndjson");
+        if (shardReports.isEmpty())
+            return null;
+        PhaseTotals totals = new PhaseTotals();
+        try (Writer merged = Files.newBufferedWriter(new File(saddleLogDir, phaseName + ".ndjson").toPath(), StandardCharsets.UTF_8))
+        {
+            for (File ndjson : shardReports)
+            {
+                for (JsonObject record : readNdjson(ndjson))
+                {
+                    totals.add(record);
+                    merged.write(record.toString());
+                    merged.write('\n');
+                }
+            }
+        }
+        return totals;
+    }
+
+    private static List<JsonObject> readNdjson(File ndjson) throws IOException
+    {
+        List<JsonObject> records = new ArrayList<>();
+        for (String line : Files.readAllLines(ndjson.toPath(), StandardCharsets.UTF_8))
+        {
+            // A shard that crashed mid-phase may have left a partial last line
+            if (line.trim().isEmpty() || !line.trim().endsWith("}"))
+                continue;
+            records.add(new JsonParser().parse(line).getAsJsonObject());
+        }
+        return records;
+    }
+
+    private List<File> getShardFiles(String fileName)
+    {
+        List<File> shardFiles = new ArrayList<>();
+        for (File shardDir : shardDirs)
+        {
+            File shardFile = new File(shardDir, fileName);
+            if (shardFile.exists())
+                shardFiles.add(shardFile);
+        }
+        return shardFiles;
+    }
+
+    /**
+     * @param incompleteShards receives the shards whose JUnit XML could not be parsed
+     * @return the number of failed and errored test cases
+     */
+    private int mergeJunitXml(String phaseName, List<File> incompleteShards) throws IOException, ParserConfigurationException, TransformerException
+    {
+        DocumentBuilder documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        // Throws on errors without printing them, as incomplete shards are reported in the summary
+        documentBuilder.setErrorHandler(new DefaultHandler());
+        Document merged = null;
+        for (File junitXml : getShardFiles(phaseName + ".xml"))
+        {
+            Document shard;
+            try
+            {
+                shard = documentBuilder.parse(junitXml);
+            }
+            catch (SAXException e)
+            {
+                incompleteShards.add(junitXml.getParentFile());
+                shard = fromNdjson(documentBuilder, new File(junitXml.getParentFile(), phaseName + ".ndjson"), phaseName);
+            }
+            if (merged == null)
+            {
+                merged = shard;
+                continue;
+            }
+            Element suite = merged.getDocumentElement();
+            for (Node testCase = shard.getDocumentElement().getFirstChild(); testCase != null; testCase = testCase.getNextSibling())
+            {
+                if (testCase.getNodeType() == Node.ELEMENT_NODE)
+                    suite.appendChild(merged.importNode(testCase, true));
+            }
+        }
+        if (merged == null)
+            return 0;
+        int failures = updateCounts(merged.getDocumentElement());
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        transformer.transform(new DOMSource(merged), new StreamResult(new File(saddleLogDir, phaseName + ".xml")));
+        return failures;
+    }
+
+    /**
+     * Sets the count attributes of {@code suite} from its test cases
+     * @return the number of failed and errored test cases
+     */
+    private static int updateCounts(Element suite)
+    {
+        int tests = 0;
+        Map<String, Integer> outcomes = new HashMap<>();
+        for (Node testCase = suite.getFirstChild(); testCase != null; testCase = testCase.getNextSibling())
+        {
+            if (testCase.getNodeType() != Node.ELEMENT_NODE)
+                continue;
+            tests++;
+            for (Node outcome = testCase.getFirstChild(); outcome != null; outcome = outcome.getNextSibling())
+            {
+                if (outcome.getNodeType() == Node.ELEMENT_NODE)
+                    outcomes.merge(outcome.getNodeName(), 1, Integer::sum);
+            }
+        }
+        suite.setAttribute("tests", Integer.toString(tests));
+        suite.setAttribute("failures", Integer.toString(outcomes.getOrDefault("failure", 0)));
+        suite.setAttribute("errors", Integer.toString(outcomes.getOrDefault("error", 0)));
+        suite.setAttribute("skipped", Integer.toString(outcomes.getOrDefault("skipped", 0)));
+        return outcomes.getOrDefault("failure", 0) + outcomes.getOrDefault("error", 0);
+    }
+
+    /**
+     * @return a JUnit XML test suite with a test case for each record of {@code ndjson}, which may not exist
+     */
+    private static Document fromNdjson(DocumentBuilder documentBuilder, File ndjson, String phaseName) throws IOException
+    {
+        Document document = documentBuilder.newDocument();
+        Element suite = document.createElement("testsuite");
+        suite.setAttribute("name", "saddle." + phaseName);
+        document.appendChild(suite);
+        if (!ndjson.exists())
+            return document;
+        for (JsonObject record : readNdjson(ndjson))
+        {
+            Element testCase = document.createElement("testcase");
+            testCase.setAttribute("name", record.get("name").getAsString());
+            testCase.setAttribute("classname", record.get("class").getAsString());
+            testCase.setAttribute("time", String.format("%.6f", record.get("duration_ns").getAsLong() / 1_000_000_000.0));
+            String status = record.get("status").getAsString();
+            if (status.equals("SKIPPED") || status.equals("ABORTED"))
+            {
+                Element skipped = document.createElement("skipped");
+                if (record.has("reason"))
+                    skipped.setAttribute("message", record.get("reason").getAsString());
+                testCase.appendChild(skipped);
+            }
+            else if (status.equals("FAILED"))
+            {
+                Element failure = document.createElement("failure");
+                if (record.has("failure"))
+                    failure.setTextContent(record.get("failure").getAsString());
+                testCase.appendChild(failure);
+            }
+            suite.appendChild(testCase);
+        }
+        return document;
+    }
+
+    private static class PhaseTotals
+    {
+        int found, 
+            skipped, 
+            aborted, 
+            failed, 
+            passed,
+            failedContainers;
+        long durationNanos;
+        final StringBuilder failures = new StringBuilder();
+
+        void add(JsonObject record)
+        {
+            String status = record.get("status").getAsString();
+            if (status.equals("FAILED"))
+            {
+                failures.append(record.get("id").getAsString()).append('\n');
+                if (record.has("failure"))
+                    failures.append(record.get("failure").getAsString()).append('\n');
+            }
+            // Containers are only recorded when they fail
+            if (record.has("container"))
+            {
+                failedContainers++;
+                return;
+            }
+            found++;
+            durationNanos += record.get("duration_ns").getAsLong();
+            switch (status)
+            {
+            case "SKIPPED":
+                skipped++;
+                break;
+            case "ABORTED":
+                aborted++;
+                break;
+            case "FAILED":
+                failed++;
+                break;
+            case "SUCCESSFUL":
+                passed++;
+                break;
+            }
+        }
+
+        void printTo(PrintWriter writer, LoadPhase loadPhase)
+        {
+            writer.printf("%s: %d found, %d skipped, %d aborted, %d failed, %d passed, %d ms of test time%n", loadPhase, 
+                found, skipped, aborted, failed, passed, durationNanos / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package io.github.daomephsta.saddle;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.TestExecutionResult.Status;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Streams one record per test to NDJSON and/or JUnit XML reports as each test completes.
+ * Every record is flushed, so a crash mid-phase leaves the results so far on disk. The JUnit XML 
+ * is closed after every test case, and reopened by overwriting the closing tag, so it is always well-formed.
+ */
+public class StreamingTestReporter implements TestExecutionListener
+{
+    private static final Logger LOGGER = LogManager.getLogger("Saddle");
+    private static final String SUITE_END = "</testsuite>\n";
+    
+    private final File ndjsonFile,
+                       junitXmlFile;
+    private final String suiteName;
+    private final Map<String, Long> startTimes = new ConcurrentHashMap<>();
+    private Writer ndjson;
+    private RandomAccessFile junitXml;
+    // The length of the suite header, which is padded so that updated counts fit, and the offset of the closing tag
+    private int suiteHeaderLength;
+    private long suiteEnd;
+    private int tests,
+                failures,
+                errors,
+                skipped;
+
+    /**
+     * @param ndjsonFile the file to write NDJSON records to, or null to disable NDJSON output
+     * @param junitXmlFile the file to write JUnit XML to, or null to disable JUnit XML output
+     * @param suiteName the name of the JUnit XML test suite
+     */
+    public StreamingTestReporter(File ndjsonFile, File junitXmlFile, String suiteName)
+    {
+        this.ndjsonFile = ndjsonFile;
+        this.junitXmlFile = junitXmlFile;
+        this.suiteName = suiteName;
+    }
+
+    @Override
+    public synchronized void testPlanExecutionStarted(TestPlan testPlan)
+    {
+        try
+        {
+            if (ndjsonFile != null)
+                ndjson = open(ndjsonFile);
+            if (junitXmlFile != null)
+            {
+                junitXml = new RandomAccessFile(junitXmlFile, "rw");
+                junitXml.setLength(0);
+                tests = failures = errors = skipped = 0;
+                // Room for the largest counts, and the end of the start tag
+                suiteHeaderLength = getSuiteHeader(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE).length + 2;
+                suiteEnd = suiteHeaderLength;
+                writeJunitXml(new byte[0]);
+            }
+        }
+        catch (IOException e)
+        {
+            LOGGER.warn("Failed to open the reports of {}", suiteName, e);
+        }
+    }
+
+    private byte[] getSuiteHeader(int tests, int failures, int errors, int skipped)
+    {
+        return String.format("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testsuite name=\"%s\" tests=\"%d\" failures=\"%d\" errors=\"%d\" skipped=\"%d\"", 
+            escapeXml(suiteName), tests, failures, errors, skipped).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends {@code testCases} to the suite, then rewrites the closing tag and the counts of the suite
+     */
+    private void writeJunitXml(byte[] testCases) throws IOException
+    {
+        byte[] end = SUITE_END.getBytes(StandardCharsets.UTF_8);
+        junitXml.seek(suiteEnd);
+        junitXml.write(testCases);
+        junitXml.write(end);
+        suiteEnd += testCases.length;
+        // Whitespace before the end of a start tag is allowed, so the header pads itself out to a fixed length
+        byte[] header = getSuiteHeader(tests, failures, errors, skipped);
+        StringBuilder padding = new StringBuilder();
+        for (int i = header.length; i < suiteHeaderLength - 2; i++)
+            padding.append(' ');
+        junitXml.seek(0);
+        junitXml.write(header);
+        junitXml.write((padding + ">\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Writer open(File file) throws IOException
+    {
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void executionStarted(TestIdentifier testIdentifier)
+    {
+        startTimes.put(testIdentifier.getUniqueId(), System.nanoTime());
+    }
+
+    @Override
+    public void executionSkipped(TestIdentifier testIdentifier, String reason)
+    {
+        if (testIdentifier.isTest())
+            writeRecord(testIdentifier, "SKIPPED", 0, reason, null);
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult result)
+    {
+        Long startTime = startTimes.remove(testIdentifier.getUniqueId());
+        long duration = startTime != null ? System.nanoTime() - startTime : 0;
+        // Containers are only reported when they fail, e.g. due to an exception in a @BeforeAll method
+        if (testIdentifier.isTest() || result.getStatus() == Status.FAILED)
+        {
+            writeRecord(testIdentifier, result.getStatus().name(), duration,
+                null, result.getThrowable().orElse(null));
+        }
+    }
+
+    private synchronized void writeRecord(TestIdentifier testIdentifier, String status, long durationNanos, String skipReason, Throwable failure)
+    {
+        String className = testIdentifier.getSource()
+            .filter(MethodSource.class::isInstance)
+            .map(source -> ((MethodSource) source).getClassName())
+            .orElse("");
+        try
+        {
+            if (ndjson != null)
+                writeNdjsonRecord(testIdentifier, className, status, durationNanos, skipReason, failure);
+            if (junitXml != null)
+                writeJunitXmlRecord(testIdentifier, className, status, durationNanos, skipReason, failure);
+        }
+        catch (IOException e)
+        {
+            LOGGER.warn("Failed to report {} of {}", testIdentifier.getDisplayName(), suiteName, e);
+        }
+    }
+
+    private void writeNdjsonRecord(TestIdentifier testIdentifier, String className, String status, long durationNanos,
+        String skipReason, Throwable failure) throws IOException
+    {
+        JsonObject record = new JsonObject();
+        record.addProperty("id", testIdentifier.getUniqueId());
+        record.addProperty("name", testIdentifier.getDisplayName());
+        record.addProperty("class", className);
+        record.addProperty("status", status);
+        record.addProperty("duration_ns", durationNanos);
+        if (!testIdentifier.isTest())
+            record.addProperty("container", true);
+        if (skipReason != null)
+            record.addProperty("reason", skipReason);
+        if (failure != null)
+            record.addProperty("failure", getStackTrace(failure));
+        ndjson.write(record.toString());
+        ndjson.write('\n');
+        ndjson.flush();
+    }
+
+    private void writeJunitXmlRecord(TestIdentifier testIdentifier, String className, String status, long durationNanos,
+        String skipReason, Throwable failure) throws IOException
+    {
+        StringBuilder testCase = new StringBuilder(String.format("  <testcase name=\"%s\" classname=\"%s\" time=\"%.6f\"",
+            escapeXml(testIdentifier.getDisplayName()), escapeXml(className), durationNanos / 1_000_000_000.0));
+        tests++;
+        if (status.equals("SUCCESSFUL"))
+            testCase.append("/>\n");
+        else
+        {
+            testCase.append(">\n");
+            if (status.equals("SKIPPED") || status.equals("ABORTED"))
+            {
+                String message = skipReason != null ? skipReason : failure != null ? String.valueOf(failure.getMessage()) : "";
+                testCase.append("    <skipped message=\"").append(escapeXml(message)).append("\"/>\n");
+                skipped++;
+            }
+            else if (failure != null)
+            {
+                boolean assertionFailure = failure instanceof AssertionError;
+                testCase.append(String.format("    <%s message=\"%s\" type=\"%s\">%s</%1$s>\n", assertionFailure ? "failure" : "error",
+                    escapeXml(String.valueOf(failure.getMessage())), failure.getClass().getName(), escapeXml(getStackTrace(failure))));
+                if (assertionFailure)
+                    failures++;
+                else
+                    errors++;
+            }
+            else
+            {
+                testCase.append("    <failure/>\n");
+                failures++;
+            }
+            testCase.append("  </testcase>\n");
+        }
+        writeJunitXml(testCase.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public synchronized void testPlanExecutionFinished(TestPlan testPlan)
+    {
+        try
+        {
+            if (ndjson != null)
+                ndjson.close();
+            if (junitXml != null)
+                junitXml.close();
+        }
+        catch (IOException e)
+        {
+            LOGGER.warn("Failed to close the reports of {}", suiteName, e);
+        }
+        ndjson = null;
+        junitXml = null;
+    }
+
+    private static String getStackTrace(Throwable throwable)
+    {
+        StringWriter stackTrace = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(stackTrace));
+        return stackTrace.toString();
+    }
+
+    private static String escapeXml(String text)
+    {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            switch (c)
+            {
+            case '<':
+                escaped.append("&lt;");
+                break;
+            case '>':
+                escaped.append("&gt;");
+                break;
+            case '&':
+                escaped.append("&amp;");
+                break;
+            case '"':
+                escaped.append("&quot;");
+                break;
+            default:
+                // Control characters other than whitespace are not allowed in XML 1.0
+                if (c < 0x20 && c != '\t' && c != '\n' && c != '\r')
+                    escaped.append("&#xFFFD;");
+                else
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,184 @@
+package io.github.daomephsta.saddle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.github.daomephsta.saddle.engine.TestOrder;
+
+/**
+ * The results of each test method from previous launches, keyed by {@link #getKey(MethodSource)}.
+ */
+public class TestHistory implements TestOrder.History
+{
+    private static final Logger LOGGER = LogManager.getLogger("Saddle");
+    
+    private final File file;
+    private final Map<String, Entry> entries;
+
+    private TestHistory(File file, Map<String, Entry> entries)
+    {
+        this.file = file;
+        this.entries = entries;
+    }
+
+    public static TestHistory load(File file)
+    {
+        TestHistory history = new TestHistory(file, new ConcurrentHashMap<>());
+        if (!file.exists())
+            return history;
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))
+        {
+            JsonObject tests = new JsonParser().parse(reader).getAsJsonObject().getAsJsonObject("tests");
+            for (Map.Entry<String, JsonElement> test : tests.entrySet())
+            {
+                JsonObject entry = test.getValue().getAsJsonObject();
+                history.entries.put(test.getKey(), new Entry(entry.get("class").getAsString(), 
+                    entry.get("status").getAsString(), entry.get("duration_ns").getAsLong(), 
+                    entry.get("class_hash").getAsString()));
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            // A corrupt history only costs a full run
+            LOGGER.warn("Failed to load test history from {}, ignoring it", file, e);
+            history.entries.clear();
+        }
+        return history;
+    }
+
+    /**
+     * @return an unmodifiable copy of this history, for readers that run concurrently with tests recording their results
+     */
+    public TestHistory snapshot()
+    {
+        return new TestHistory(file, Collections.unmodifiableMap(new HashMap<>(entries)));
+    }
+
+    public static String getKey(MethodSource methodSource)
+    {
+        return methodSource.getClassName() + '#' + methodSource.getMethodName() + '(' + methodSource.getMethodParameterTypes() + ')';
+    }
+
+    public Optional<Entry> get(String key)
+    {
+        return Optional.ofNullable(entries.get(key));
+    }
+
+    @Override
+    public OptionalLong getDurationNanos(MethodSource method)
+    {
+        Entry entry = entries.get(getKey(method));
+        return entry != null ? OptionalLong.of(entry.durationNanos) : OptionalLong.empty();
+    }
+
+    @Override
+    public boolean hasFailed(MethodSource method)
+    {
+        Entry entry = entries.get(getKey(method));
+        return entry != null && entry.status.equals("FAILED");
+    }
+
+    public void put(String key, Entry entry)
+    {
+        entries.put(key, entry);
+    }
+
+    public void putAll(TestHistory other)
+    {
+        entries.putAll(other.entries);
+    }
+
+    /**
+     * @return the total duration of each class's test methods in nanoseconds
+     */
+    public Map<String, Long> getClassDurations()
+    {
+        Map<String, Long> classDurations = new HashMap<>();
+        for (Entry entry : entries.values())
+            classDurations.merge(entry.getClassName(), entry.getDurationNanos(), Long::sum);
+        return classDurations;
+    }
+
+    public synchronized void save()
+    {
+        JsonObject tests = new JsonObject();
+        for (Map.Entry<String, Entry> test : entries.entrySet())
+        {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("class", test.getValue().className);
+            entry.addProperty("status", test.getValue().status);
+            entry.addProperty("duration_ns", test.getValue().durationNanos);
+            entry.addProperty("class_hash", test.getValue().classHash);
+            tests.add(test.getKey(), entry);
+        }
+        JsonObject root = new JsonObject();
+        root.add("tests", tests);
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))
+        {
+            writer.write(root.toString());
+        }
+        catch (IOException e)
+        {
+            LOGGER.warn("Failed to save test history to {}", file, e);
+        }
+    }
+
+    public static class Entry
+    {
+        private final String className,
+                             status;
+        private final long durationNanos;
+        private final String classHash;
+
+        public Entry(String className, String status, long durationNanos, String classHash)
+        {
+            this.className = className;
+            this.status = status;
+            this.durationNanos = durationNanos;
+            this.classHash = classHash;
+        }
+
+        public String getClassName()
+        {
+            return className;
+        }
+
+        public String getStatus()
+        {
+            return status;
+        }
+
+        public boolean isSuccessful()
+        {
+            return status.equals("SUCCESSFUL");
+        }
+
+        public long getDurationNanos()
+        {
+            return durationNanos;
+        }
+
+        public String getClassHash()
+        {
+            return classHash;
+        }
+    }
+}
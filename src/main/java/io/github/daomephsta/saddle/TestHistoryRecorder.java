@@ -0,0 +1,63 @@
+package io.github.daomephsta.saddle;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.TestExecutionResult.Status;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+/**
+ * Records the result of each test method to a {@link TestHistory}, saving it when execution finishes.
+ * Invocations of the same method, e.g. parameterized tests, are merged into one result.
+ */
+public class TestHistoryRecorder implements TestExecutionListener
+{
+    private final TestHistory history;
+    private final ClassHashes classHashes;
+    private final Map<String, Long> startTimes = new ConcurrentHashMap<>();
+    private final Map<String, TestHistory.Entry> results = new ConcurrentHashMap<>();
+
+    public TestHistoryRecorder(TestHistory history, ClassHashes classHashes)
+    {
+        this.history = history;
+        this.classHashes = classHashes;
+    }
+
+    @Override
+    public void executionStarted(TestIdentifier testIdentifier)
+    {
+        if (testIdentifier.isTest())
+            startTimes.put(testIdentifier.getUniqueId(), System.nanoTime());
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult result)
+    {
+        Long startTime = startTimes.remove(testIdentifier.getUniqueId());
+        if (startTime == null || !testIdentifier.getSource().filter(MethodSource.class::isInstance).isPresent())
+            return;
+        long duration = System.nanoTime() - startTime;
+        MethodSource methodSource = (MethodSource) testIdentifier.getSource().get();
+        String className = methodSource.getClassName();
+        TestHistory.Entry entry = new TestHistory.Entry(className, result.getStatus().name(), duration, classHashes.get(className));
+        results.merge(TestHistory.getKey(methodSource), entry, TestHistoryRecorder::merge);
+    }
+
+    private static TestHistory.Entry merge(TestHistory.Entry a, TestHistory.Entry b)
+    {
+        String status = !a.isSuccessful() ? a.getStatus() : b.getStatus();
+        return new TestHistory.Entry(a.getClassName(), status, a.getDurationNanos() + b.getDurationNanos(), a.getClassHash());
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan)
+    {
+        results.forEach(history::put);
+        results.clear();
+        history.save();
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.daomephsta.saddle;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+import io.github.daomephsta.saddle.engine.TickScheduler;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+/**
+ * Runs the tick scheduled phases on a background thread, one after another. Test invocations are handed to 
+ * the server thread and run at the end of server ticks ({@link LoadPhase#SERVER_STARTED}) or overworld ticks 
+ * ({@link LoadPhase#WORLD_TICK}), within a per-tick time budget, so the server keeps ticking while tests run. 
+ * If the server stops first, the remaining invocations of every phase fail instead of waiting for ticks that never come.
+ */
+public class TickPhaseRunner
+{
+    private static final Logger LOGGER = LogManager.getLogger("Saddle");
+    private static final String CANCELLATION_REASON = "Server stopped before tick scheduled tests finished";
+    
+    private final List<LoadPhase> loadPhases;
+    private final Consumer<LoadPhase> phaseExecutor;
+    private final Runnable onFinished;
+    private final long budgetMillis;
+    private volatile LoadPhase currentPhase;
+    private volatile TickScheduler currentScheduler;
+    private volatile boolean finished,
+                             cancelled;
+    private final AtomicBoolean finishHandled = new AtomicBoolean();
+    private Thread phaseThread;
+
+    /**
+     * @param loadPhases the tick scheduled phases to run, in order
+     * @param phaseExecutor executes the tests of a phase. Called on the background thread.
+     * @param onFinished called on the server thread once all phases have run, 
+     * or on the background thread if the server stopped before they finished
+     * @param budgetMillis the time tests may use per tick, in milliseconds
+     */
+    TickPhaseRunner(List<LoadPhase> loadPhases, Consumer<LoadPhase> phaseExecutor, Runnable onFinished, long budgetMillis)
+    {
+        this.loadPhases = loadPhases;
+        this.phaseExecutor = phaseExecutor;
+        this.onFinished = onFinished;
+        this.budgetMillis = budgetMillis;
+    }
+
+    void start()
+    {
+        MinecraftForge.EVENT_BUS.register(this);
+        phaseThread = new Thread(this::runPhases, "Saddle Tick Phases");
+        phaseThread.setDaemon(true);
+        phaseThread.start();
+    }
+
+    private void runPhases()
+    {
+        try
+        {
+            for (LoadPhase loadPhase : loadPhases)
+            {
+                TickScheduler scheduler = new TickScheduler(budgetMillis, TimeUnit.MILLISECONDS);
+                scheduler.activate();
+                currentScheduler = scheduler;
+                currentPhase = loadPhase;
+                // Checked after publishing the scheduler, so that stop() either cancels it or is seen here
+                if (cancelled)
+                    scheduler.cancel(CANCELLATION_REASON);
+                try
+                {
+                    phaseExecutor.accept(loadPhase);
+                }
+                finally
+                {
+                    currentPhase = null;
+                    scheduler.deactivate();
+                }
+                LOGGER.info("{} tick scheduling: {}", loadPhase, scheduler.getStatistics());
+            }
+        }
+        finally
+        {
+            finished = true;
+            // Without ticks, onServerTick() won't get the chance
+            if (cancelled)
+                handleFinish();
+        }
+    }
+
+    private void handleFinish()
+    {
+        if (finishHandled.compareAndSet(false, true))
+            onFinished.run();
+    }
+
+    /**
+     * Fails any remaining tick scheduled invocations of this and later phases, as the server will not tick again
+     */
+    void stop()
+    {
+        MinecraftForge.EVENT_BUS.unregister(this);
+        cancelled = true;
+        TickScheduler scheduler = currentScheduler;
+        if (scheduler != null)
+            scheduler.cancel(CANCELLATION_REASON);
+        if (finished)
+            handleFinish();
+    }
+
+    @SubscribeEvent
+    public void onServerTick(TickEvent.ServerTickEvent event)
+    {
+        if (event.phase != TickEvent.Phase.END)
+            return;
+        if (finished)
+        {
+            MinecraftForge.EVENT_BUS.unregister(this);
+            handleFinish();
+        }
+        else if (currentPhase == LoadPhase.SERVER_STARTED)
+            currentScheduler.tick();
+    }
+
+    @SubscribeEvent
+    public void onWorldTick(TickEvent.WorldTickEvent event)
+    {
+        // Only the overworld, so that each server tick drains the queue once
+        if (event.phase != TickEvent.Phase.END || event.world.isRemote || event.world.provider.getDimension() != 0)
+            return;
+        if (currentPhase == LoadPhase.WORLD_TICK)
+            currentScheduler.tick();
+    }
+}
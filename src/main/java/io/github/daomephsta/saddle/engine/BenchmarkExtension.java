@@ -0,0 +1,105 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.opentest4j.AssertionFailedError;
+
+public class BenchmarkExtension implements InvocationInterceptor
+{
+    private static final Logger LOGGER = LogManager.getLogger("Saddle");
+    private static final Namespace NAMESPACE = Namespace.create(BenchmarkExtension.class);
+
+    @Override
+    public void interceptTestMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext, 
+        ExtensionContext extensionContext) throws Throwable
+    {
+        Method method = invocationContext.getExecutable();
+        SaddleBenchmark benchmark = AnnotationSupport.findAnnotation(method, SaddleBenchmark.class)
+            .orElseThrow(() -> new IllegalStateException(method + " is not annotated with @SaddleBenchmark"));
+        if (benchmark.warmupIterations() <= 0 || benchmark.iterations() <= 0 || benchmark.iterationMillis() <= 0)
+        {
+            throw new IllegalArgumentException(String.format("%s must have more than 0 warm-up iterations, iterations and " 
+                + "milliseconds per iteration, found %d, %d and %d", method, benchmark.warmupIterations(), 
+                benchmark.iterations(), benchmark.iterationMillis()));
+        }
+        // Jupiter requires the original invocation to proceed exactly once, so it is an extra untimed call before warm-up
+        invocation.proceed();
+        MethodHandle operation = bind(method, invocationContext);
+        
+        long iterationNanos = TimeUnit.MILLISECONDS.toNanos(benchmark.iterationMillis());
+        for (int i = 0; i < benchmark.warmupIterations(); i++)
+            runIteration(operation, iterationNanos);
+        double[] scores = new double[benchmark.iterations()];
+        for (int i = 0; i < scores.length; i++)
+            scores[i] = runIteration(operation, iterationNanos);
+        BenchmarkResult result = BenchmarkResult.of(extensionContext.getUniqueId(), extensionContext.getDisplayName(), scores);
+        extensionContext.publishReportEntry("saddle.benchmark", result.toString());
+        LOGGER.info("Benchmark {}: {}", extensionContext.getDisplayName(), result);
+        
+        BenchmarkResults results = getResults(extensionContext);
+        results.add(result);
+        BenchmarkResult baseline = results.getBaseline(result.getId());
+        if (baseline != null && result.isRegressionFrom(baseline, results.getRegressionThreshold()))
+        {
+            String message = String.format("Benchmark %s regressed from %s to %s", 
+                extensionContext.getDisplayName(), baseline, result);
+            LOGGER.warn(message);
+            if (results.shouldFailOnRegression())
+                throw new AssertionFailedError(message);
+        }
+    }
+
+    /**
+     * @return a handle that calls {@code method} on the test instance with the resolved arguments. 
+     * Unlike {@link Method#invoke(Object, Object...)}, it doesn't box the arguments, or check access, on every call.
+     */
+    private MethodHandle bind(Method method, ReflectiveInvocationContext<Method> invocationContext) throws IllegalAccessException
+    {
+        method.setAccessible(true);
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        Object target = invocationContext.getTarget().orElse(null);
+        if (target != null)
+            handle = handle.bindTo(target);
+        return MethodHandles.insertArguments(handle, 0, invocationContext.getArguments().toArray())
+            .asType(MethodType.methodType(void.class));
+    }
+
+    private double runIteration(MethodHandle operation, long iterationNanos) throws Throwable
+    {
+        long operations = 0;
+        long start = System.nanoTime(), 
+             deadline = start + iterationNanos,
+             now;
+        do
+        {
+            operation.invokeExact();
+            operations++;
+        }
+        while ((now = System.nanoTime()) < deadline);
+        return operations / ((now - start) / 1_000_000_000.0);
+    }
+
+    private BenchmarkResults getResults(ExtensionContext extensionContext)
+    {
+        return extensionContext.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(BenchmarkResults.class, 
+            key -> new BenchmarkResults(
+                new File(extensionContext.getConfigurationParameter("saddle.outputDirectory").orElse("logs/saddle"), "benchmarks"),
+                extensionContext.getConfigurationParameter("saddle.loadPhase").orElse("unknown").toLowerCase(),
+                extensionContext.getConfigurationParameter("saddle.benchmark.regressionThreshold").map(Double::parseDouble).orElse(0.1),
+                extensionContext.getConfigurationParameter("saddle.benchmark.failOnRegression").map(Boolean::parseBoolean).orElse(false),
+                extensionContext.getConfigurationParameter("saddle.benchmark.updateBaseline").map(Boolean::parseBoolean).orElse(false)), 
+            BenchmarkResults.class);
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.daomephsta.saddle.engine;
+
+import com.google.gson.JsonObject;
+
+public class BenchmarkResult
+{
+    // Two-sided 95% quantiles of Student's t-distribution, indexed by degrees of freedom
+    private static final double[] T_QUANTILES = {Double.NaN, 12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 
+        2.228, 2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086, 2.080, 2.074, 2.069, 2.064, 2.060, 
+        2.056, 2.052, 2.048, 2.045, 2.042};
+    private static final double Z_QUANTILE = 1.960;
+    
+    private final String id, 
+                         name;
+    private final double score,
+                         error;
+    private final int iterations;
+
+    private BenchmarkResult(String id, String name, double score, double error, int iterations)
+    {
+        this.id = id;
+        this.name = name;
+        this.score = score;
+        this.error = error;
+        this.iterations = iterations;
+    }
+
+    static BenchmarkResult of(String id, String name, double[] scores)
+    {
+        double mean = 0;
+        for (double score : scores)
+            mean += score;
+        mean /= scores.length;
+        double error = Double.NaN;
+        if (scores.length > 1)
+        {
+            double variance = 0;
+            for (double score : scores)
+                variance += (score - mean) * (score - mean);
+            variance /= scores.length - 1;
+            int degreesOfFreedom = scores.length - 1;
+            double quantile = degreesOfFreedom < T_QUANTILES.length ? T_QUANTILES[degreesOfFreedom] : Z_QUANTILE;
+            error = quantile * Math.sqrt(variance / scores.length);
+        }
+        return new BenchmarkResult(id, name, mean, error, scores.length);
+    }
+
+    static BenchmarkResult fromJson(JsonObject json)
+    {
+        return new BenchmarkResult(json.get("id").getAsString(), json.get("name").getAsString(), 
+            json.get("score").getAsDouble(), json.has("error") ? json.get("error").getAsDouble() : Double.NaN, 
+            json.get("iterations").getAsInt());
+    }
+
+    JsonObject toJson()
+    {
+        JsonObject json = new JsonObject();
+        json.addProperty("id", id);
+        json.addProperty("name", name);
+        json.addProperty("score", score);
+        if (!Double.isNaN(error))
+            json.addProperty("error", error);
+        json.addProperty("iterations", iterations);
+        json.addProperty("unit", "ops/s");
+        return json;
+    }
+
+    /**
+     * @return true if this result is more than {@code threshold} (a fraction) slower than {@code baseline}, 
+     * and their confidence intervals don't overlap
+     */
+    public boolean isRegressionFrom(BenchmarkResult baseline, double threshold)
+    {
+        double errorMargin = (Double.isNaN(error) ? 0 : error) + (Double.isNaN(baseline.error) ? 0 : baseline.error);
+        return score < baseline.score * (1 - threshold) && score + errorMargin < baseline.score;
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public double getScore()
+    {
+        return score;
+    }
+
+    public double getError()
+    {
+        return error;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Double.isNaN(error) 
+            ? String.format("%.3f ops/s", score)
+            : String.format("%.3f +/- %.3f ops/s (95%% CI, %d iterations)", score, error, iterations);
+    }
+}
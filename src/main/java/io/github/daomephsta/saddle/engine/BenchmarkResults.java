@@ -0,0 +1,99 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Persists the benchmark results of a load phase to {@code <phase>.ndjson} as they are recorded,
+ * and compares them against {@code baseline.json}. Closed when its load phase finishes.
+ */
+class BenchmarkResults implements CloseableResource
+{
+    private final File baselineFile;
+    private final double regressionThreshold;
+    private final boolean failOnRegression, 
+                          updateBaseline;
+    private final Map<String, BenchmarkResult> baseline = new LinkedHashMap<>(), 
+                                               results = new LinkedHashMap<>();
+    private final Writer resultsWriter;
+
+    BenchmarkResults(File directory, String loadPhase, double regressionThreshold, boolean failOnRegression, boolean updateBaseline)
+    {
+        this.baselineFile = new File(directory, "baseline.json");
+        this.regressionThreshold = regressionThreshold;
+        this.failOnRegression = failOnRegression;
+        this.updateBaseline = updateBaseline;
+        try
+        {
+            directory.mkdirs();
+            if (baselineFile.exists())
+            {
+                try (Reader reader = Files.newBufferedReader(baselineFile.toPath(), StandardCharsets.UTF_8))
+                {
+                    for (Map.Entry<String, JsonElement> entry : new JsonParser().parse(reader).getAsJsonObject().entrySet())
+                        baseline.put(entry.getKey(), BenchmarkResult.fromJson(entry.getValue().getAsJsonObject()));
+                }
+            }
+            this.resultsWriter = Files.newBufferedWriter(new File(directory, loadPhase + ".ndjson").toPath(), StandardCharsets.UTF_8);
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Failed to open benchmark results in " + directory, e);
+        }
+    }
+
+    synchronized void add(BenchmarkResult result) throws IOException
+    {
+        results.put(result.getId(), result);
+        resultsWriter.write(result.toJson().toString());
+        resultsWriter.write('\n');
+        resultsWriter.flush();
+    }
+
+    synchronized BenchmarkResult getBaseline(String id)
+    {
+        return baseline.get(id);
+    }
+
+    double getRegressionThreshold()
+    {
+        return regressionThreshold;
+    }
+
+    boolean shouldFailOnRegression()
+    {
+        return failOnRegression;
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        resultsWriter.close();
+        if (updateBaseline && !results.isEmpty())
+        {
+            // Re-read, as other load phases may have updated the baseline since it was loaded
+            JsonObject updatedBaseline = baselineFile.exists() 
+                ? new JsonParser().parse(new String(Files.readAllBytes(baselineFile.toPath()), StandardCharsets.UTF_8)).getAsJsonObject()
+                : new JsonObject();
+            for (BenchmarkResult result : results.values())
+                updatedBaseline.add(result.getId(), result.toJson());
+            try (BufferedWriter writer = Files.newBufferedWriter(baselineFile.toPath(), StandardCharsets.UTF_8))
+            {
+                writer.write(updatedBaseline.toString());
+            }
+        }
+    }
+}
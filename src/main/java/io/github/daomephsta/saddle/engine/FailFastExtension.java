@@ -0,0 +1,75 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+/**
+ * Skips the rest of a phase once a test or container has failed, if {@code saddle.failFast} is true. 
+ * Tests that are already running in parallel still finish. Registered for the whole engine by {@link SaddleTestEngine}, 
+ * so remaining classes are skipped along with their {@code @BeforeAll} and {@code @AfterAll} methods. 
+ * Failures are recorded by {@link FailureListener}, which also sees failing containers, e.g. in {@code @BeforeAll} methods.
+ */
+public class FailFastExtension implements ExecutionCondition
+{
+    private static final ConditionEvaluationResult ENABLED = ConditionEvaluationResult.enabled("No test has failed");
+    // The first failure of the phase being executed, reset when execution starts
+    private static final AtomicReference<String> firstFailure = new AtomicReference<>();
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context)
+    {
+        if (!isEnabled(context))
+            return ENABLED;
+        String failure = firstFailure.get();
+        return failure != null 
+            ? ConditionEvaluationResult.disabled("fail-fast is enabled and " + failure + " failed") 
+            : ENABLED;
+    }
+
+    private boolean isEnabled(ExtensionContext context)
+    {
+        return context.getConfigurationParameter("saddle.failFast").map(Boolean::parseBoolean).orElse(false);
+    }
+
+    /**
+     * Records the first failure of each execution, for {@link FailFastExtension}
+     */
+    public static class FailureListener implements TestExecutionListener
+    {
+        @Override
+        public void testPlanExecutionStarted(TestPlan testPlan)
+        {
+            firstFailure.set(null);
+        }
+
+        @Override
+        public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult result)
+        {
+            if (result.getStatus() == TestExecutionResult.Status.FAILED)
+                firstFailure.compareAndSet(null, getName(testIdentifier));
+        }
+
+        private static String getName(TestIdentifier testIdentifier)
+        {
+            TestSource source = testIdentifier.getSource().orElse(null);
+            if (source instanceof MethodSource)
+            {
+                String className = ((MethodSource) source).getClassName();
+                return className.substring(className.lastIndexOf('.') + 1) + '.' + testIdentifier.getDisplayName();
+            }
+            else if (source instanceof ClassSource)
+                return ((ClassSource) source).getJavaClass().getSimpleName();
+            return testIdentifier.getDisplayName();
+        }
+    }
+}
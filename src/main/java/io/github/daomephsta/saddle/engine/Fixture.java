@@ -0,0 +1,28 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the fixture built by {@link #value()} into a test method, lifecycle method or constructor parameter. 
+ * The fixture is built the first time it is needed, then cached for {@link #lifetime()}, so tests must not 
+ * modify it, or must {@link Fixtures#evict(Class) evict} it afterwards.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface Fixture
+{
+    public Class<? extends FixtureFactory<?>> value();
+    
+    public Lifetime lifetime() default Lifetime.PHASE;
+    
+    public enum Lifetime 
+    {
+        // Evicted when the load phase finishes
+        PHASE, 
+        // Evicted when all load phases have finished
+        SUITE
+    }
+}
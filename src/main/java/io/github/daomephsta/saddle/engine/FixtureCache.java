@@ -0,0 +1,88 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.platform.commons.support.ReflectionSupport;
+
+/**
+ * Fixtures keyed by the class of their factory. Each fixture is built at most once until it is evicted, 
+ * even if requested concurrently.
+ */
+class FixtureCache
+{
+    private static final Logger LOGGER = LogManager.getLogger("Saddle");
+    // Only holds built fixtures, so evicting never waits for a build
+    private final Map<Class<?>, CachedFixture> fixtures = new ConcurrentHashMap<>();
+
+    Object get(Class<? extends FixtureFactory<?>> factoryClass, FixtureStatistics statistics) throws Throwable
+    {
+        CachedFixture fixture = fixtures.get(factoryClass);
+        if (fixture != null)
+        {
+            statistics.recordHit(factoryClass);
+            return fixture.value;
+        }
+        /* Fixtures are shared, so they may not be thread safe, and are always built on the pinned thread. 
+         * Builds are checked for there too, so they happen one at a time without holding a lock while waiting for that thread. */
+        return ThreadAffinityExtension.proceedPinned(() -> getOrBuild(factoryClass, statistics)).value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private CachedFixture getOrBuild(Class<? extends FixtureFactory<?>> factoryClass, FixtureStatistics statistics) throws Throwable
+    {
+        CachedFixture fixture = fixtures.get(factoryClass);
+        if (fixture != null)
+        {
+            statistics.recordHit(factoryClass);
+            return fixture;
+        }
+        long buildStart = System.nanoTime();
+        FixtureFactory<Object> factory = (FixtureFactory<Object>) ReflectionSupport.newInstance(factoryClass);
+        fixture = new CachedFixture(factoryClass, factory, factory.create());
+        statistics.recordBuild(factoryClass, System.nanoTime() - buildStart);
+        fixtures.put(factoryClass, fixture);
+        return fixture;
+    }
+
+    void evict(Class<?> factoryClass)
+    {
+        CachedFixture fixture = fixtures.remove(factoryClass);
+        if (fixture != null)
+            fixture.close();
+    }
+
+    void evictAll()
+    {
+        for (Class<?> factoryClass : fixtures.keySet())
+            evict(factoryClass);
+    }
+
+    private static class CachedFixture
+    {
+        private final Class<?> factoryClass;
+        private final FixtureFactory<Object> factory;
+        final Object value;
+
+        CachedFixture(Class<?> factoryClass, FixtureFactory<Object> factory, Object value)
+        {
+            this.factoryClass = factoryClass;
+            this.factory = factory;
+            this.value = value;
+        }
+
+        void close()
+        {
+            try
+            {
+                factory.close(value);
+            }
+            catch (Exception e)
+            {
+                LOGGER.warn("Failed to close the fixture of {}", factoryClass.getName(), e);
+            }
+        }
+    }
+}
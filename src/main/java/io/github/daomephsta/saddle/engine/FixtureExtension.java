@@ -0,0 +1,81 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.lang.reflect.Parameter;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+/**
+ * Resolves {@link Fixture} parameters from the cache of their lifetime, and logs each phase's fixture statistics 
+ * when it finishes. Registered for the whole engine by {@link SaddleTestEngine}.
+ */
+public class FixtureExtension implements ParameterResolver
+{
+    private static final Logger LOGGER = LogManager.getLogger("Saddle");
+    private static final Namespace NAMESPACE = Namespace.create(FixtureExtension.class);
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) throws ParameterResolutionException
+    {
+        return parameterContext.isAnnotated(Fixture.class);
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) throws ParameterResolutionException
+    {
+        Parameter parameter = parameterContext.getParameter();
+        Fixture fixture = parameterContext.findAnnotation(Fixture.class).get();
+        PhaseFixtures phaseFixtures = extensionContext.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(PhaseFixtures.class, 
+            key -> new PhaseFixtures(extensionContext.getConfigurationParameter("saddle.loadPhase").orElse("unknown")), PhaseFixtures.class);
+        FixtureCache cache = fixture.lifetime() == Fixture.Lifetime.SUITE ? Fixtures.SUITE : phaseFixtures.cache;
+        Object value;
+        try
+        {
+            value = cache.get(fixture.value(), phaseFixtures.statistics);
+        }
+        catch (Error e)
+        {
+            throw e;
+        }
+        catch (Throwable e)
+        {
+            throw new ParameterResolutionException("Failed to build fixture " + fixture.value().getName() + " for " + parameter, e);
+        }
+        // Jupiter reports mismatched primitive parameters itself
+        if (value != null && !parameter.getType().isPrimitive() && !parameter.getType().isInstance(value))
+        {
+            throw new ParameterResolutionException(String.format("Fixture %s built a %s, which cannot be assigned to %s", 
+                fixture.value().getName(), value.getClass().getName(), parameter));
+        }
+        return value;
+    }
+
+    // Closed by Jupiter when the phase's execution finishes
+    private static class PhaseFixtures implements CloseableResource
+    {
+        private final String loadPhase;
+        final FixtureCache cache = new FixtureCache();
+        final FixtureStatistics statistics = new FixtureStatistics();
+
+        PhaseFixtures(String loadPhase)
+        {
+            this.loadPhase = loadPhase;
+            Fixtures.phase = cache;
+        }
+
+        @Override
+        public void close()
+        {
+            if (Fixtures.phase == cache)
+                Fixtures.phase = null;
+            cache.evictAll();
+            statistics.logTo(LOGGER, loadPhase);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.daomephsta.saddle.engine;
+
+/**
+ * Builds a fixture that is shared by all {@link Fixture} parameters naming this factory, for the fixture's lifetime. 
+ * Implementations must have a no-argument constructor.
+ */
+public interface FixtureFactory<T>
+{
+    public T create() throws Exception;
+
+    /**
+     * Called when the fixture is evicted. Closes {@link AutoCloseable} fixtures by default.
+     */
+    public default void close(T fixture) throws Exception
+    {
+        if (fixture instanceof AutoCloseable)
+            ((AutoCloseable) fixture).close();
+    }
+}
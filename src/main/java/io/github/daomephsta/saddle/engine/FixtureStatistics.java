@@ -0,0 +1,50 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Counts fixture builds, their build time and cache hits, by factory
+ */
+class FixtureStatistics
+{
+    private final Map<Class<?>, Counters> counters = new ConcurrentHashMap<>();
+
+    void recordBuild(Class<?> factoryClass, long buildNanos)
+    {
+        Counters factoryCounters = counters.computeIfAbsent(factoryClass, key -> new Counters());
+        factoryCounters.builds.incrementAndGet();
+        factoryCounters.buildNanos.addAndGet(buildNanos);
+    }
+
+    void recordHit(Class<?> factoryClass)
+    {
+        counters.computeIfAbsent(factoryClass, key -> new Counters()).hits.incrementAndGet();
+    }
+
+    void logTo(Logger logger, String loadPhase)
+    {
+        for (Map.Entry<Class<?>, Counters> entry : counters.entrySet())
+        {
+            Counters factoryCounters = entry.getValue();
+            long builds = factoryCounters.builds.get(),
+                 buildNanos = factoryCounters.buildNanos.get(),
+                 hits = factoryCounters.hits.get();
+            // Hits on fixtures built in an earlier phase are estimated to save nothing, as the build time is unknown
+            double savedMillis = builds > 0 ? hits * (buildNanos / (double) builds) / 1_000_000.0 : 0;
+            logger.info("Fixture {} in {}: {} builds in {} ms, {} cache hits, saving about {} ms", 
+                entry.getKey().getName(), loadPhase, builds, String.format("%.3f", buildNanos / 1_000_000.0), hits, 
+                String.format("%.3f", savedMillis));
+        }
+    }
+
+    private static class Counters
+    {
+        final AtomicLong builds = new AtomicLong(),
+                         buildNanos = new AtomicLong(),
+                         hits = new AtomicLong();
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.daomephsta.saddle.engine;
+
+/**
+ * Evicts cached fixtures, e.g. after a test modifies one
+ */
+public class Fixtures
+{
+    static final FixtureCache SUITE = new FixtureCache();
+    // The fixtures of the load phase being executed, if any
+    static volatile FixtureCache phase;
+
+    private Fixtures() {}
+
+    /**
+     * Evicts the fixture built by {@code factoryClass} from every lifetime. It is built again the next time it is needed.
+     */
+    public static void evict(Class<? extends FixtureFactory<?>> factoryClass)
+    {
+        FixtureCache phase = Fixtures.phase;
+        if (phase != null)
+            phase.evict(factoryClass);
+        SUITE.evict(factoryClass);
+    }
+
+    /**
+     * Evicts every {@link Fixture.Lifetime#SUITE suite} fixture. Called once all load phases have finished.
+     */
+    public static void evictSuite()
+    {
+        SUITE.evictAll();
+    }
+}
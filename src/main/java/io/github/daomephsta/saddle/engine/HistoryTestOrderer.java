@@ -0,0 +1,147 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+
+/**
+ * Reorders the children of discovered descriptors by {@link TestOrder}. Jupiter executes children in the order 
+ * of the descriptor tree, so the children of classes annotated with {@link TestMethodOrder} are left alone, 
+ * to keep the order that class asked for.
+ */
+class HistoryTestOrderer
+{
+    private final TestOrder order;
+    private final TestOrder.History history;
+    private final Map<TestDescriptor, Rank> ranks = new HashMap<>();
+    private long meanDurationNanos;
+
+    HistoryTestOrderer(TestOrder order, TestOrder.History history)
+    {
+        this.order = order;
+        this.history = history;
+    }
+
+    void apply(TestDescriptor root)
+    {
+        long totalDuration = 0;
+        int knownDurations = 0;
+        for (TestDescriptor test : getMethods(root))
+        {
+            OptionalLong duration = history.getDurationNanos((MethodSource) test.getSource().get());
+            if (duration.isPresent())
+            {
+                totalDuration += duration.getAsLong();
+                knownDurations++;
+            }
+        }
+        meanDurationNanos = knownDurations > 0 ? totalDuration / knownDurations : 0;
+        rank(root);
+        reorder(root);
+    }
+
+    private List<TestDescriptor> getMethods(TestDescriptor root)
+    {
+        List<TestDescriptor> methods = new ArrayList<>();
+        root.accept(descriptor -> 
+        {
+            if (descriptor.getSource().filter(MethodSource.class::isInstance).isPresent())
+                methods.add(descriptor);
+        });
+        return methods;
+    }
+
+    private Rank rank(TestDescriptor descriptor)
+    {
+        Rank rank;
+        if (descriptor.getSource().filter(MethodSource.class::isInstance).isPresent())
+        {
+            MethodSource method = (MethodSource) descriptor.getSource().get();
+            OptionalLong duration = history.getDurationNanos(method);
+            rank = new Rank(history.hasFailed(method), !duration.isPresent(), duration.orElse(meanDurationNanos));
+        }
+        else
+        {
+            // Containers rank as the sum of their children
+            rank = new Rank(false, false, 0);
+            for (TestDescriptor child : descriptor.getChildren())
+                rank = rank.plus(rank(child));
+        }
+        ranks.put(descriptor, rank);
+        return rank;
+    }
+
+    private void reorder(TestDescriptor descriptor)
+    {
+        List<TestDescriptor> children = new ArrayList<>(descriptor.getChildren());
+        if (hasMethodOrder(descriptor))
+        {
+            children.forEach(this::reorder);
+            return;
+        }
+        // Stable, so ties keep their order
+        children.sort(getComparator());
+        for (TestDescriptor child : children)
+        {
+            descriptor.removeChild(child);
+            descriptor.addChild(child);
+            reorder(child);
+        }
+    }
+
+    private static boolean hasMethodOrder(TestDescriptor descriptor)
+    {
+        return descriptor.getSource()
+            .filter(ClassSource.class::isInstance)
+            .map(source -> AnnotationSupport.isAnnotated(((ClassSource) source).getJavaClass(), TestMethodOrder.class))
+            .orElse(false);
+    }
+
+    private Comparator<TestDescriptor> getComparator()
+    {
+        Comparator<Rank> comparator;
+        switch (order)
+        {
+        case FAILED_FIRST:
+            comparator = Comparator.<Rank, Boolean>comparing(rank -> !rank.failed)
+                .thenComparing(rank -> !rank.containsNew)
+                .thenComparingLong(rank -> rank.durationNanos);
+            break;
+        case LONGEST_FIRST:
+            comparator = Comparator.<Rank>comparingLong(rank -> rank.durationNanos).reversed();
+            break;
+        default:
+            comparator = (a, b) -> 0;
+            break;
+        }
+        return Comparator.comparing(ranks::get, comparator);
+    }
+
+    private static class Rank
+    {
+        final boolean failed,
+                      containsNew;
+        final long durationNanos;
+
+        Rank(boolean failed, boolean containsNew, long durationNanos)
+        {
+            this.failed = failed;
+            this.containsNew = containsNew;
+            this.durationNanos = durationNanos;
+        }
+
+        Rank plus(Rank other)
+        {
+            return new Rank(failed || other.failed, containsNew || other.containsNew, durationNanos + other.durationNanos);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.junit.jupiter.api.extension.InvocationInterceptor.Invocation;
+
+/**
+ * Runs invocations that are not thread safe on the thread that started execution, 
+ * while the rest of the execution proceeds on worker threads.
+ */
+class MainThreadExecutor implements PinnedInvocationExecutor
+{
+    private static final Runnable WAKE_UP = () -> {};
+    private static volatile MainThreadExecutor active;
+    
+    private final Thread mainThread = Thread.currentThread();
+    private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+    private volatile boolean cancelled;
+
+    static Optional<MainThreadExecutor> getActive()
+    {
+        return Optional.ofNullable(active);
+    }
+
+    static void execute(Runnable execution)
+    {
+        MainThreadExecutor executor = new MainThreadExecutor();
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        Thread executionThread = new Thread(() ->
+        {
+            try
+            {
+                execution.run();
+                completion.complete(null);
+            }
+            catch (Throwable t)
+            {
+                completion.completeExceptionally(t);
+            }
+        }, "Saddle Test Execution");
+        completion.whenComplete((result, exception) -> executor.tasks.add(WAKE_UP));
+        active = executor;
+        try
+        {
+            executionThread.start();
+            executor.runUntilComplete(completion);
+            // Still active, so that invocations pinned after an interrupt fail instead of running unpinned
+            completion.join();
+        }
+        finally
+        {
+            active = null;
+        }
+    }
+
+    private void runUntilComplete(CompletableFuture<Void> completion)
+    {
+        while (!completion.isDone() || !tasks.isEmpty())
+        {
+            try
+            {
+                tasks.take().run();
+            }
+            catch (InterruptedException e)
+            {
+                // Nothing will run pinned invocations any more, so fail them rather than leave execution waiting forever
+                cancel();
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void cancel()
+    {
+        cancelled = true;
+        IllegalStateException cancellation = new IllegalStateException("Main thread interrupted");
+        for (Runnable task = tasks.poll(); task != null; task = tasks.poll())
+        {
+            if (task instanceof PinnedInvocation)
+                ((PinnedInvocation<?>) task).cancel(cancellation);
+        }
+    }
+
+    @Override
+    public <T> T call(Invocation<T> invocation) throws Throwable
+    {
+        if (Thread.currentThread() == mainThread)
+            return invocation.proceed();
+        if (cancelled)
+            throw new IllegalStateException("Main thread interrupted");
+        PinnedInvocation<T> pinned = new PinnedInvocation<>(invocation);
+        tasks.add(pinned);
+        // Catch invocations queued concurrently with cancellation
+        if (cancelled && tasks.remove(pinned))
+            pinned.cancel(new IllegalStateException("Main thread interrupted"));
+        return pinned.await();
+    }
+}
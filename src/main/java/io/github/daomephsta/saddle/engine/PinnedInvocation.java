@@ -0,0 +1,116 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.extension.InvocationInterceptor.Invocation;
+
+/**
+ * An invocation handed from the thread that requested it to the thread it is pinned to
+ */
+class PinnedInvocation<T> implements Runnable, ForkJoinPool.ManagedBlocker
+{
+    private enum State {QUEUED, RUNNING, DONE, CANCELLED}
+
+    private final Invocation<T> invocation;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private State state = State.QUEUED;
+    private Thread runner;
+    private boolean runnerInterrupted;
+    private T result;
+    private Throwable failure;
+
+    PinnedInvocation(Invocation<T> invocation)
+    {
+        this.invocation = invocation;
+    }
+
+    @Override
+    public void run()
+    {
+        synchronized (this)
+        {
+            if (state != State.QUEUED)
+                return;
+            state = State.RUNNING;
+            runner = Thread.currentThread();
+        }
+        try
+        {
+            result = invocation.proceed();
+        }
+        catch (Throwable t)
+        {
+            failure = t;
+        }
+        finally
+        {
+            synchronized (this)
+            {
+                state = State.DONE;
+                runner = null;
+                // The interrupt was meant for this invocation, not whatever the thread runs next
+                if (runnerInterrupted)
+                    Thread.interrupted();
+            }
+            done.countDown();
+        }
+    }
+
+    void cancel(Throwable reason)
+    {
+        synchronized (this)
+        {
+            if (state != State.QUEUED)
+                return;
+            state = State.CANCELLED;
+        }
+        failure = reason;
+        done.countDown();
+    }
+
+    T await() throws Throwable
+    {
+        try
+        {
+            // Lets the worker pool compensate for the blocked worker
+            ForkJoinPool.managedBlock(this);
+        }
+        catch (InterruptedException e)
+        {
+            // Jupiter's timeout interrupts the waiting thread, so pass the interrupt on to the invocation
+            interrupt();
+            throw e;
+        }
+        if (failure != null)
+            throw failure;
+        return result;
+    }
+
+    /**
+     * Drops the invocation if it has not started yet, or interrupts the thread running it
+     */
+    private synchronized void interrupt()
+    {
+        if (state == State.QUEUED)
+            state = State.CANCELLED;
+        else if (state == State.RUNNING)
+        {
+            runnerInterrupted = true;
+            runner.interrupt();
+        }
+    }
+
+    @Override
+    public boolean block() throws InterruptedException
+    {
+        done.await();
+        return true;
+    }
+
+    @Override
+    public boolean isReleasable()
+    {
+        return done.getCount() == 0;
+    }
+}
@@ -0,0 +1,11 @@
+package io.github.daomephsta.saddle.engine;
+
+import org.junit.jupiter.api.extension.InvocationInterceptor.Invocation;
+
+/**
+ * Runs invocations that are not thread safe on a particular thread
+ */
+interface PinnedInvocationExecutor
+{
+    <T> T call(Invocation<T> invocation) throws Throwable;
+}
@@ -0,0 +1,28 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.support.AnnotationConsumer;
+
+class RegistryArgumentsProvider implements ArgumentsProvider, AnnotationConsumer<RegistrySource>
+{
+    private RegistrySource source;
+
+    @Override
+    public void accept(RegistrySource source)
+    {
+        this.source = source;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Override
+    public Stream<? extends Arguments> provideArguments(ExtensionContext context)
+    {
+        // Raw, as the wildcard registry type can't satisfy the bound of entries()
+        Stream<?> entries = RegistryTests.entries((Class) source.value(), source.namespaces());
+        return entries.map(Arguments::of);
+    }
+}
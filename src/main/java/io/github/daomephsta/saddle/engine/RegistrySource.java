@@ -0,0 +1,30 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+import net.minecraftforge.registries.IForgeRegistryEntry;
+
+/**
+ * Provides each entry of a Forge registry as the argument of a {@link SaddleParameterizedTest}. 
+ * Entries are read lazily, as each invocation is about to run.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.ANNOTATION_TYPE, ElementType.METHOD})
+@ArgumentsSource(RegistryArgumentsProvider.class)
+public @interface RegistrySource
+{
+    /**
+     * @return the type of the registry's entries, e.g. {@code Block.class}
+     */
+    public Class<? extends IForgeRegistryEntry<?>> value();
+
+    /**
+     * @return the namespaces of the entries to provide, e.g. a mod ID, or none to provide every entry
+     */
+    public String[] namespaces() default {};
+}
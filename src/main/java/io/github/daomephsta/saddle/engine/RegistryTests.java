@@ -0,0 +1,49 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.function.ThrowingConsumer;
+
+import net.minecraftforge.fml.common.registry.GameRegistry;
+import net.minecraftforge.registries.IForgeRegistry;
+import net.minecraftforge.registries.IForgeRegistryEntry;
+
+/**
+ * Creates a dynamic test for each entry of a Forge registry, for {@link SaddleTestFactory} methods. 
+ * The returned streams are lazy, so each entry's test is only created when it is about to run.
+ */
+public class RegistryTests
+{
+    /**
+     * @param registryType the type of the registry's entries, e.g. {@code Block.class}
+     * @param test the test to run against each entry
+     * @param namespaces the namespaces of the entries to test, e.g. a mod ID, or none to test every entry
+     * @return a dynamic test for each entry, named after its registry name
+     */
+    public static <V extends IForgeRegistryEntry<V>> Stream<DynamicTest> forEachEntry(Class<V> registryType, 
+        ThrowingConsumer<? super V> test, String... namespaces)
+    {
+        return DynamicTest.stream(entries(registryType, namespaces).iterator(), 
+            entry -> String.valueOf(entry.getRegistryName()), test);
+    }
+
+    /**
+     * @return a lazy stream of the entries of the registry of {@code registryType} in {@code namespaces}, 
+     * or of every entry if there are no namespaces
+     */
+    public static <V extends IForgeRegistryEntry<V>> Stream<V> entries(Class<V> registryType, String... namespaces)
+    {
+        IForgeRegistry<V> registry = GameRegistry.findRegistry(registryType);
+        if (registry == null)
+            throw new IllegalArgumentException("No registry of " + registryType.getName());
+        Stream<V> entries = registry.getValuesCollection().stream();
+        if (namespaces.length == 0)
+            return entries;
+        List<String> namespaceList = Arrays.asList(namespaces);
+        return entries.filter(entry -> entry.getRegistryName() != null 
+            && namespaceList.contains(entry.getRegistryName().getNamespace()));
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CPU time and bytes allocated by a thread, and collections by the garbage collector. 
+ * CPU time and allocation are per thread; garbage collection is JVM wide, so it includes 
+ * collections caused by concurrently running tests. Unsupported measurements are -1.
+ */
+public class ResourceUsage
+{
+    static final String CPU_NANOS = "saddle.cpu_ns",
+                        ALLOCATED_BYTES = "saddle.allocated_bytes",
+                        GC_COUNT = "saddle.gc_count",
+                        GC_MILLIS = "saddle.gc_ms";
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    
+    private final long cpuNanos,
+                       allocatedBytes,
+                       gcCount,
+                       gcMillis;
+
+    private ResourceUsage(long cpuNanos, long allocatedBytes, long gcCount, long gcMillis)
+    {
+        this.cpuNanos = cpuNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.gcCount = gcCount;
+        this.gcMillis = gcMillis;
+    }
+
+    /**
+     * @return the current thread's totals so far
+     */
+    static ResourceUsage ofCurrentThread()
+    {
+        long gcCount = 0, 
+             gcMillis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            // Negative if undefined for this collector
+            gcCount += Math.max(collector.getCollectionCount(), 0);
+            gcMillis += Math.max(collector.getCollectionTime(), 0);
+        }
+        return new ResourceUsage(getCurrentThreadCpuTime(), getCurrentThreadAllocatedBytes(), gcCount, gcMillis);
+    }
+
+    private static long getCurrentThreadCpuTime()
+    {
+        return THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled() 
+            ? THREADS.getCurrentThreadCpuTime() 
+            : -1;
+    }
+
+    private static long getCurrentThreadAllocatedBytes()
+    {
+        // HotSpot specific
+        if (THREADS instanceof com.sun.management.ThreadMXBean)
+        {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled())
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * @return the usage between {@code start} and this
+     */
+    ResourceUsage since(ResourceUsage start)
+    {
+        return new ResourceUsage(difference(cpuNanos, start.cpuNanos), difference(allocatedBytes, start.allocatedBytes), 
+            gcCount - start.gcCount, gcMillis - start.gcMillis);
+    }
+
+    private static long difference(long end, long start)
+    {
+        return end < 0 || start < 0 ? -1 : end - start;
+    }
+
+    Map<String, String> toReportEntry()
+    {
+        Map<String, String> entry = new HashMap<>();
+        entry.put(CPU_NANOS, Long.toString(cpuNanos));
+        entry.put(ALLOCATED_BYTES, Long.toString(allocatedBytes));
+        entry.put(GC_COUNT, Long.toString(gcCount));
+        entry.put(GC_MILLIS, Long.toString(gcMillis));
+        return entry;
+    }
+
+    /**
+     * @return the usage published by {@link ResourceUsageExtension}, or null if {@code entry} is some other report entry
+     */
+    public static ResourceUsage fromReportEntry(Map<String, String> entry)
+    {
+        if (!entry.containsKey(CPU_NANOS))
+            return null;
+        return new ResourceUsage(Long.parseLong(entry.get(CPU_NANOS)), Long.parseLong(entry.get(ALLOCATED_BYTES)), 
+            Long.parseLong(entry.get(GC_COUNT)), Long.parseLong(entry.get(GC_MILLIS)));
+    }
+
+    public long getCpuNanos()
+    {
+        return cpuNanos;
+    }
+
+    public long getAllocatedBytes()
+    {
+        return allocatedBytes;
+    }
+
+    public long getGcCount()
+    {
+        return gcCount;
+    }
+
+    public long getGcMillis()
+    {
+        return gcMillis;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("cpu %s ms, %s KiB allocated, %d GCs in %d ms", 
+            cpuNanos < 0 ? "?" : String.format("%.3f", cpuNanos / 1_000_000.0), 
+            allocatedBytes < 0 ? "?" : String.format("%.1f", allocatedBytes / 1024.0), gcCount, gcMillis);
+    }
+}
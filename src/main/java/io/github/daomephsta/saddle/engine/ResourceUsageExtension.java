@@ -0,0 +1,78 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import org.opentest4j.AssertionFailedError;
+
+/**
+ * Measures the CPU time, allocation and garbage collection of each test, publishes them as a report entry, 
+ * and fails tests that exceed their budgets. Registered by the Saddle test annotations, so it runs inside 
+ * {@link ThreadAffinityExtension}, which is registered for the whole engine, and measures the thread the test is pinned to.
+ */
+public class ResourceUsageExtension implements InvocationInterceptor
+{
+    @Override
+    public void interceptTestMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext, 
+        ExtensionContext extensionContext) throws Throwable
+    {
+        measure(invocation, extensionContext);
+    }
+
+    @Override
+    public void interceptTestTemplateMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext, 
+        ExtensionContext extensionContext) throws Throwable
+    {
+        measure(invocation, extensionContext);
+    }
+
+    @Override
+    public void interceptDynamicTest(Invocation<Void> invocation, ExtensionContext extensionContext) throws Throwable
+    {
+        measure(invocation, extensionContext);
+    }
+
+    private void measure(Invocation<Void> invocation, ExtensionContext extensionContext) throws Throwable
+    {
+        ResourceUsage start = ResourceUsage.ofCurrentThread(),
+                      usage;
+        try
+        {
+            invocation.proceed();
+        }
+        finally
+        {
+            usage = ResourceUsage.ofCurrentThread().since(start);
+            extensionContext.publishReportEntry(usage.toReportEntry());
+        }
+        // Only reached if the test itself passed
+        checkBudgets(usage, extensionContext);
+    }
+
+    private void checkBudgets(ResourceUsage usage, ExtensionContext extensionContext)
+    {
+        TestMethodMetadata metadata = TestMethodMetadata.of(extensionContext).orElse(null);
+        // Benchmarks run for as long as their iterations take, so their usage isn't comparable to a budget
+        if (metadata != null && metadata.isBenchmark())
+            return;
+        long maxAllocatedBytes = metadata != null && metadata.getMaxAllocatedBytes() >= 0 
+            ? metadata.getMaxAllocatedBytes() 
+            : extensionContext.getConfigurationParameter("saddle.budget.allocatedBytes").map(Long::parseLong).orElse(-1L);
+        long maxCpuMillis = metadata != null && metadata.getMaxCpuMillis() >= 0 
+            ? metadata.getMaxCpuMillis() 
+            : extensionContext.getConfigurationParameter("saddle.budget.cpuMillis").map(Long::parseLong).orElse(-1L);
+        if (maxAllocatedBytes >= 0 && usage.getAllocatedBytes() > maxAllocatedBytes)
+        {
+            throw new AssertionFailedError(String.format("%s allocated %d bytes, exceeding its budget of %d bytes", 
+                extensionContext.getDisplayName(), usage.getAllocatedBytes(), maxAllocatedBytes));
+        }
+        if (maxCpuMillis >= 0 && usage.getCpuNanos() > TimeUnit.MILLISECONDS.toNanos(maxCpuMillis))
+        {
+            throw new AssertionFailedError(String.format("%s used %.3f ms of CPU time, exceeding its budget of %d ms", 
+                extensionContext.getDisplayName(), usage.getCpuNanos() / 1_000_000.0, maxCpuMillis));
+        }
+    }
+}
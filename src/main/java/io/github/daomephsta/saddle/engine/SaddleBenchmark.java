@@ -0,0 +1,58 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+
+/**
+ * Marks a method as a benchmark that runs during {@link #loadPhase()}. The method is invoked once, then repeatedly for 
+ * {@link #warmupIterations()} untimed iterations, then {@link #iterations()} timed iterations of 
+ * {@link #iterationMillis()} milliseconds each. The throughput is reported in operations per second.
+ * Like test methods, benchmark methods must return void, so store results that must not be optimised away in a field. 
+ * Benchmarks run for as long as their iterations take, so they are exempt from the test timeout, the watchdog's test deadline 
+ * and resource budgets, and are tagged {@value #TAG}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.ANNOTATION_TYPE, ElementType.METHOD})
+@EnabledIfSystemProperty(named = "saddle.active", matches = "true")
+@Test
+@Tag(SaddleBenchmark.TAG)
+// Jupiter 5.5 can't disable the default timeout for a method, so use one that is never reached
+@Timeout(value = Long.MAX_VALUE, unit = TimeUnit.DAYS)
+@ExtendWith({ResourceUsageExtension.class, BenchmarkExtension.class})
+public @interface SaddleBenchmark
+{
+    public static final String TAG = "saddle.benchmark";
+    
+    public LoadPhase loadPhase();
+    
+    /**
+     * @return the number of untimed iterations, greater than 0
+     */
+    public int warmupIterations() default 5;
+    
+    /**
+     * @return the number of timed iterations, greater than 0
+     */
+    public int iterations() default 10;
+    
+    /**
+     * @return the length of each iteration in milliseconds, greater than 0
+     */
+    public long iterationMillis() default 100;
+    
+    /**
+     * @see SaddleTest#threadSafe()
+     */
+    public boolean threadSafe() default false;
+}
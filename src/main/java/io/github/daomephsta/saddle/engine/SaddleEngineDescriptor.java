@@ -0,0 +1,117 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.engine.config.JupiterConfiguration;
+import org.junit.jupiter.engine.descriptor.ClassBasedTestDescriptor;
+import org.junit.jupiter.engine.descriptor.ClassTestDescriptor;
+import org.junit.jupiter.engine.descriptor.JupiterEngineDescriptor;
+import org.junit.jupiter.engine.descriptor.MethodBasedTestDescriptor;
+import org.junit.jupiter.engine.descriptor.NestedClassTestDescriptor;
+import org.junit.jupiter.engine.descriptor.TestFactoryTestDescriptor;
+import org.junit.jupiter.engine.descriptor.TestMethodTestDescriptor;
+import org.junit.jupiter.engine.descriptor.TestTemplateTestDescriptor;
+import org.junit.jupiter.engine.execution.JupiterEngineExecutionContext;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.UniqueId;
+
+/**
+ * Jupiter's engine descriptor, with Saddle's extensions registered for the whole engine, 
+ * so that they apply to every class and method, not only to methods with a Saddle test annotation
+ */
+class SaddleEngineDescriptor extends JupiterEngineDescriptor
+{
+    SaddleEngineDescriptor(UniqueId uniqueId, JupiterConfiguration configuration)
+    {
+        super(uniqueId, configuration);
+    }
+
+    /**
+     * @return a descriptor with the configuration and children of {@code jupiterDescriptor}, which is left empty
+     */
+    static SaddleEngineDescriptor adopt(JupiterEngineDescriptor jupiterDescriptor)
+    {
+        SaddleEngineDescriptor engineDescriptor = new SaddleEngineDescriptor(jupiterDescriptor.getUniqueId(), jupiterDescriptor.getConfiguration());
+        // Copy, as children are removed during iteration
+        for (TestDescriptor child : new ArrayList<>(jupiterDescriptor.getChildren()))
+        {
+            jupiterDescriptor.removeChild(child);
+            engineDescriptor.addChild(child);
+        }
+        return engineDescriptor;
+    }
+
+    /**
+     * Builds a descriptor from copies of already discovered test methods and the classes they belong to, 
+     * without scanning or reflecting on test classes again. The copies use {@code configuration}, 
+     * so that the configuration parameters of the copy's discovery request apply to them.
+     * @param tests method descriptors discovered by Jupiter, in the order they were discovered
+     */
+    static SaddleEngineDescriptor copyOf(UniqueId uniqueId, JupiterConfiguration configuration, List<TestDescriptor> tests)
+    {
+        SaddleEngineDescriptor engineDescriptor = new SaddleEngineDescriptor(uniqueId, configuration);
+        Map<UniqueId, TestDescriptor> copies = new HashMap<>();
+        copies.put(uniqueId, engineDescriptor);
+        for (TestDescriptor test : tests)
+            copyWithAncestors(test, configuration, copies);
+        return engineDescriptor;
+    }
+
+    private static TestDescriptor copyWithAncestors(TestDescriptor descriptor, JupiterConfiguration configuration, Map<UniqueId, TestDescriptor> copies)
+    {
+        TestDescriptor copy = copies.get(descriptor.getUniqueId());
+        if (copy == null)
+        {
+            TestDescriptor parent = descriptor.getParent()
+                .orElseThrow(() -> new IllegalStateException(descriptor + " does not belong to an engine descriptor"));
+            TestDescriptor parentCopy = copyWithAncestors(parent, configuration, copies);
+            copy = copy(descriptor, configuration);
+            parentCopy.addChild(copy);
+            copies.put(copy.getUniqueId(), copy);
+        }
+        return copy;
+    }
+
+    private static TestDescriptor copy(TestDescriptor descriptor, JupiterConfiguration configuration)
+    {
+        UniqueId uniqueId = descriptor.getUniqueId();
+        if (descriptor instanceof ClassBasedTestDescriptor)
+        {
+            Class<?> testClass = ((ClassBasedTestDescriptor) descriptor).getTestClass();
+            if (descriptor instanceof NestedClassTestDescriptor)
+                return new NestedClassTestDescriptor(uniqueId, testClass, configuration);
+            if (descriptor instanceof ClassTestDescriptor)
+                return new ClassTestDescriptor(uniqueId, testClass, configuration);
+        }
+        else if (descriptor instanceof MethodBasedTestDescriptor)
+        {
+            Class<?> testClass = ((MethodBasedTestDescriptor) descriptor).getTestClass();
+            Method testMethod = ((MethodBasedTestDescriptor) descriptor).getTestMethod();
+            // Test factories are also test method descriptors, so check for them first
+            if (descriptor instanceof TestFactoryTestDescriptor)
+                return new TestFactoryTestDescriptor(uniqueId, testClass, testMethod, configuration);
+            if (descriptor instanceof TestMethodTestDescriptor)
+                return new TestMethodTestDescriptor(uniqueId, testClass, testMethod, configuration);
+            if (descriptor instanceof TestTemplateTestDescriptor)
+                return new TestTemplateTestDescriptor(uniqueId, testClass, testMethod, configuration);
+        }
+        throw new IllegalStateException("Cannot copy " + descriptor);
+    }
+
+    @Override
+    public JupiterEngineExecutionContext prepare(JupiterEngineExecutionContext context)
+    {
+        JupiterEngineExecutionContext engineContext = super.prepare(context);
+        // Before any class level extensions, so that pinning wraps every other interceptor
+        engineContext.getExtensionRegistry().registerExtension(new ThreadAffinityExtension(), this);
+        // Resolves fixtures for constructors and class level lifecycle methods too
+        engineContext.getExtensionRegistry().registerExtension(new FixtureExtension(), this);
+        // Skips whole classes after a failure, not only the remaining Saddle test methods
+        engineContext.getExtensionRegistry().registerExtension(new FailFastExtension(), this);
+        return engineContext;
+    }
+}
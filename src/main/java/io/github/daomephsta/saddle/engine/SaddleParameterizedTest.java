@@ -0,0 +1,42 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+
+/**
+ * Marks a method as a parameterized test that runs during {@link #loadPhase()}, like {@link ParameterizedTest}. 
+ * Arguments are provided by the usual sources, or from a Forge registry by {@link RegistrySource}, 
+ * and each invocation runs with the settings of its method.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.ANNOTATION_TYPE, ElementType.METHOD})
+@EnabledIfSystemProperty(named = "saddle.active", matches = "true")
+@ParameterizedTest
+@ExtendWith(ResourceUsageExtension.class)
+public @interface SaddleParameterizedTest
+{
+    public LoadPhase loadPhase();
+    
+    /**
+     * @see SaddleTest#threadSafe()
+     */
+    public boolean threadSafe() default false;
+    
+    /**
+     * @see SaddleTest#maxAllocatedBytes()
+     */
+    public long maxAllocatedBytes() default -1;
+    
+    /**
+     * @see SaddleTest#maxCpuMillis()
+     */
+    public long maxCpuMillis() default -1;
+}
@@ -7,14 +7,47 @@ import java.lang.annotation.Target;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.ANNOTATION_TYPE, ElementType.METHOD})
 @EnabledIfSystemProperty(named = "saddle.active", matches = "true")
 @Test
+@ExtendWith(ResourceUsageExtension.class)
 public @interface SaddleTest
 {
-    public enum LoadPhase {PRE_INIT, INIT, POST_INIT}
+    public enum LoadPhase 
+    {
+        PRE_INIT, 
+        INIT, 
+        POST_INIT, 
+        // Tick scheduled phases, spread across server ticks 
+        SERVER_STARTED, 
+        WORLD_TICK;
+
+        public boolean isTickScheduled()
+        {
+            return this == SERVER_STARTED || this == WORLD_TICK;
+        }
+    }
     
     public LoadPhase loadPhase();
+    
+    /**
+     * If true, this test may run on a worker thread when parallel execution is enabled. 
+     * Otherwise it always runs on the thread that executes its load phase.
+     */
+    public boolean threadSafe() default false;
+    
+    /**
+     * The maximum bytes this test may allocate on its thread, or -1 to use the configured budget.
+     * Tests that exceed it fail.
+     */
+    public long maxAllocatedBytes() default -1;
+    
+    /**
+     * The maximum CPU time this test may use on its thread in milliseconds, or -1 to use the configured budget.
+     * Tests that exceed it fail.
+     */
+    public long maxCpuMillis() default -1;
 }
@@ -1,85 +1,176 @@
 package io.github.daomephsta.saddle.engine;
 
-import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.engine.JupiterTestEngine;
-import org.junit.platform.commons.support.AnnotationSupport;
-import org.junit.platform.commons.support.ReflectionSupport;
+import org.junit.jupiter.engine.config.CachingJupiterConfiguration;
+import org.junit.jupiter.engine.config.DefaultJupiterConfiguration;
+import org.junit.jupiter.engine.descriptor.JupiterEngineDescriptor;
 import org.junit.platform.engine.EngineDiscoveryRequest;
 import org.junit.platform.engine.ExecutionRequest;
 import org.junit.platform.engine.TestDescriptor;
 import org.junit.platform.engine.TestEngine;
+import org.junit.platform.engine.TestSource;
 import org.junit.platform.engine.UniqueId;
 import org.junit.platform.engine.support.descriptor.ClassSource;
 import org.junit.platform.engine.support.descriptor.MethodSource;
 
-import com.google.common.base.Splitter;
-import com.google.common.collect.Streams;
-
 import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
 
 
 public class SaddleTestEngine implements TestEngine
 {
-    private static final Splitter COMMA = Splitter.on(',').trimResults();
+    public static final String ID = "saddle-test-engine";
+    private static final String PARALLEL_EXECUTION_ENABLED = "junit.jupiter.execution.parallel.enabled";
 
     private final TestEngine jupiterEngine = new JupiterTestEngine();
     private final LoadPhase loadPhase;
+    private final TestClassMetadataCache metadataCache;
+    private final TestOrder order;
+    private final TestOrder.History history;
+    private final LongAdder pruningNanos = new LongAdder();
+    private Consumer<TestDescriptor> discoveryListener = engineDescriptor -> {};
+    private List<TestDescriptor> scannedTests;
 
     public SaddleTestEngine(LoadPhase loadPhase)
+    {
+        this(loadPhase, new TestClassMetadataCache());
+    }
+
+    public SaddleTestEngine(LoadPhase loadPhase, TestClassMetadataCache metadataCache)
+    {
+        this(loadPhase, metadataCache, TestOrder.DEFAULT, null);
+    }
+
+    /**
+     * @param history the previous results to order tests by, only used if {@code order} isn't {@link TestOrder#DEFAULT}
+     */
+    public SaddleTestEngine(LoadPhase loadPhase, TestClassMetadataCache metadataCache, TestOrder order, TestOrder.History history)
     {
         this.loadPhase = loadPhase;
+        this.metadataCache = metadataCache;
+        this.order = order;
+        this.history = history;
     }
 
     @Override
     public String getId()
     {
-        return "saddle-test-engine";
+        return ID;
     }
 
     @Override
     public TestDescriptor discover(EngineDiscoveryRequest discoveryRequest, UniqueId uniqueId)
     {
-        TestDescriptor engineDescriptor = jupiterEngine.discover(discoveryRequest, uniqueId);
-        for (TestDescriptor descendant : engineDescriptor.getDescendants())
+        TestDescriptor engineDescriptor;
+        if (scannedTests != null)
         {
-            descendant.getSource().ifPresent(source -> 
-            {
-                if (source instanceof MethodSource)
-                {
-                    ClassSource classSource = descendant.getParent().flatMap(desc -> desc.getSource())
-                        .map(s -> s instanceof ClassSource ? (ClassSource) s : null)
-                        .orElseThrow(() -> new RuntimeException("Expected class source parent for " + descendant));
-                    MethodSource methodSource = (MethodSource) source;
-                    Class<?>[] parameterTypes = !methodSource.getMethodParameterTypes().isEmpty()
-                        ? Streams.stream(COMMA.split(methodSource.getMethodParameterTypes()))
-                            .map(typeName -> ReflectionSupport.tryToLoadClass(typeName).getOrThrow(e -> new RuntimeException(e)))
-                            .toArray(Class[]::new)
-                        : new Class[0];
-                    try
-                    {
-                        Method method = classSource.getJavaClass().getDeclaredMethod(methodSource.getMethodName(), parameterTypes);
-                        Optional<SaddleTest> saddleTest = AnnotationSupport.findAnnotation(method, SaddleTest.class);
-                        saddleTest.ifPresent(a -> 
-                        {
-                            if (a.loadPhase() != loadPhase)
-                                descendant.removeFromHierarchy();
-                        }); 
-                    }
-                    catch (NoSuchMethodException | SecurityException e)
-                    {
-                        e.printStackTrace();
-                    }
-                }
-            });
+            // Configured the way Jupiter configures the descriptors it discovers
+            engineDescriptor = SaddleEngineDescriptor.copyOf(uniqueId, 
+                new CachingJupiterConfiguration(new DefaultJupiterConfiguration(discoveryRequest.getConfigurationParameters())), scannedTests);
         }
+        else
+        {
+            engineDescriptor = SaddleEngineDescriptor.adopt((JupiterEngineDescriptor) jupiterEngine.discover(discoveryRequest, uniqueId));
+            long pruningStart = System.nanoTime();
+            pruneOtherPhases(engineDescriptor);
+            pruningNanos.add(System.nanoTime() - pruningStart);
+        }
+        discoveryListener.accept(engineDescriptor);
+        if (order != TestOrder.DEFAULT)
+            new HistoryTestOrderer(order, history).apply(engineDescriptor);
         return engineDescriptor;
     }
 
+    private void pruneOtherPhases(TestDescriptor descriptor)
+    {
+        // Copy, as children are removed during iteration
+        for (TestDescriptor child : new ArrayList<>(descriptor.getChildren()))
+        {
+            Optional<LoadPhase> testPhase = getLoadPhase(child, metadataCache);
+            if (testPhase.isPresent() && testPhase.get() != loadPhase)
+                child.removeFromHierarchy();
+            else
+                pruneOtherPhases(child);
+        }
+    }
+
+    /**
+     * Discovers tests for every load phase at once, grouping method descriptors by load phase. 
+     * Methods without a load phase belong to every load phase, as they do in {@link #discover(EngineDiscoveryRequest, UniqueId)}.
+     */
+    public static Map<LoadPhase, List<TestDescriptor>> discoverByLoadPhase(EngineDiscoveryRequest discoveryRequest, TestClassMetadataCache metadataCache)
+    {
+        TestDescriptor engineDescriptor = new JupiterTestEngine().discover(discoveryRequest, UniqueId.forEngine(ID));
+        Map<LoadPhase, List<TestDescriptor>> testsByPhase = new EnumMap<>(LoadPhase.class);
+        for (LoadPhase loadPhase : LoadPhase.values())
+            testsByPhase.put(loadPhase, new ArrayList<>());
+        engineDescriptor.accept(descriptor ->
+        {
+            if (descriptor.getSource().filter(MethodSource.class::isInstance).isPresent())
+            {
+                Optional<LoadPhase> testPhase = getLoadPhase(descriptor, metadataCache);
+                if (testPhase.isPresent())
+                    testsByPhase.get(testPhase.get()).add(descriptor);
+                else
+                    testsByPhase.values().forEach(phaseTests -> phaseTests.add(descriptor));
+            }
+        });
+        return testsByPhase;
+    }
+
+    /**
+     * @return the load phase of {@code descriptor}, if it is a test method with one
+     */
+    public static Optional<LoadPhase> getLoadPhase(TestDescriptor descriptor, TestClassMetadataCache metadataCache)
+    {
+        TestSource source = descriptor.getSource().orElse(null);
+        if (!(source instanceof MethodSource))
+            return Optional.empty();
+        ClassSource classSource = descriptor.getParent().flatMap(desc -> desc.getSource())
+            .map(s -> s instanceof ClassSource ? (ClassSource) s : null)
+            .orElseThrow(() -> new RuntimeException("Expected class source parent for " + descriptor));
+        return metadataCache.getLoadPhase(classSource.getJavaClass(), (MethodSource) source);
+    }
+
+    /**
+     * @param scannedTests the tests of this engine's phase found by {@link #discoverByLoadPhase(EngineDiscoveryRequest, TestClassMetadataCache)}. 
+     * If set, {@link #discover(EngineDiscoveryRequest, UniqueId)} builds the engine descriptor from copies of them, 
+     * and ignores the selectors of the request instead of discovering again.
+     */
+    public void setScannedTests(List<TestDescriptor> scannedTests)
+    {
+        this.scannedTests = scannedTests;
+    }
+
+    /**
+     * @param discoveryListener called with the engine descriptor once the tests of other phases have been pruned, 
+     * but before the launcher applies any post-discovery filters, so it sees every test selected for this phase
+     */
+    public void setDiscoveryListener(Consumer<TestDescriptor> discoveryListener)
+    {
+        this.discoveryListener = discoveryListener;
+    }
+
+    public long getPhasePruningTime(TimeUnit unit)
+    {
+        return unit.convert(pruningNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
     @Override
     public void execute(ExecutionRequest request)
     {
-        jupiterEngine.execute(request);
+        // Jupiter executes tests on its own worker pool, so tests that aren't thread safe are handed back to this thread
+        if (request.getConfigurationParameters().getBoolean(PARALLEL_EXECUTION_ENABLED).orElse(false))
+            MainThreadExecutor.execute(() -> jupiterEngine.execute(request));
+        else
+            jupiterEngine.execute(request);
     }
 }
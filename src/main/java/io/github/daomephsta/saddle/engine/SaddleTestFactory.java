@@ -0,0 +1,42 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+
+/**
+ * Marks a method as a test factory that runs during {@link #loadPhase()}, like {@link TestFactory}. 
+ * Return a {@code Stream} of dynamic tests, e.g. from {@link RegistryTests}, so that each test is generated 
+ * just before it runs instead of all up front. Each dynamic test runs with the settings of its factory.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.ANNOTATION_TYPE, ElementType.METHOD})
+@EnabledIfSystemProperty(named = "saddle.active", matches = "true")
+@TestFactory
+@ExtendWith(ResourceUsageExtension.class)
+public @interface SaddleTestFactory
+{
+    public LoadPhase loadPhase();
+    
+    /**
+     * @see SaddleTest#threadSafe()
+     */
+    public boolean threadSafe() default false;
+    
+    /**
+     * @see SaddleTest#maxAllocatedBytes()
+     */
+    public long maxAllocatedBytes() default -1;
+    
+    /**
+     * @see SaddleTest#maxCpuMillis()
+     */
+    public long maxCpuMillis() default -1;
+}
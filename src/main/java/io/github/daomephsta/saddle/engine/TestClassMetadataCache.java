@@ -0,0 +1,72 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+import org.junit.platform.commons.support.ReflectionSupport;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+
+import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+
+/**
+ * Reflects each test class once, mapping the signatures of its methods to their {@link TestMethodMetadata}.
+ * Safe to share between {@link SaddleTestEngine}s.
+ */
+public class TestClassMetadataCache
+{
+    private final Map<Class<?>, Map<String, TestMethodMetadata>> metadata = new ConcurrentHashMap<>();
+    private final LongAdder reflectedClasses = new LongAdder(),
+                            resolvedMethods = new LongAdder();
+
+    public Optional<LoadPhase> getLoadPhase(Class<?> testClass, MethodSource methodSource)
+    {
+        return getMetadata(testClass, methodSource).map(TestMethodMetadata::getLoadPhase);
+    }
+
+    public Optional<TestMethodMetadata> getMetadata(Class<?> testClass, MethodSource methodSource)
+    {
+        resolvedMethods.increment();
+        String signature = methodSource.getMethodName() + '(' + methodSource.getMethodParameterTypes().replace(" ", "") + ')';
+        return Optional.ofNullable(metadata.computeIfAbsent(testClass, this::reflect).get(signature));
+    }
+
+    private Map<String, TestMethodMetadata> reflect(Class<?> testClass)
+    {
+        reflectedClasses.increment();
+        Map<String, TestMethodMetadata> methodMetadata = new HashMap<>();
+        // Top down, so overriding methods replace the methods they override
+        for (Method method : ReflectionSupport.findMethods(testClass, m -> true, HierarchyTraversalMode.TOP_DOWN))
+            TestMethodMetadata.of(method).ifPresent(m -> methodMetadata.put(getSignature(method), m));
+        return methodMetadata.isEmpty() ? Collections.emptyMap() : methodMetadata;
+    }
+
+    private static String getSignature(Method method)
+    {
+        return Stream.of(method.getParameterTypes())
+            .map(Class::getName)
+            .collect(Collectors.joining(",", method.getName() + '(', ")"));
+    }
+
+    public long getReflectedClassCount()
+    {
+        return reflectedClasses.sum();
+    }
+
+    public long getResolvedMethodCount()
+    {
+        return resolvedMethods.sum();
+    }
+
+    public void clear()
+    {
+        metadata.clear();
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+
+public class TestMethodMetadata
+{
+    private final LoadPhase loadPhase;
+    private final boolean threadSafe,
+                          benchmark;
+    private final long maxAllocatedBytes,
+                       maxCpuMillis;
+
+    private TestMethodMetadata(LoadPhase loadPhase, boolean threadSafe, boolean benchmark, long maxAllocatedBytes, long maxCpuMillis)
+    {
+        this.loadPhase = loadPhase;
+        this.threadSafe = threadSafe;
+        this.benchmark = benchmark;
+        this.maxAllocatedBytes = maxAllocatedBytes;
+        this.maxCpuMillis = maxCpuMillis;
+    }
+
+    public static Optional<TestMethodMetadata> of(Method method)
+    {
+        Optional<SaddleTest> saddleTest = AnnotationSupport.findAnnotation(method, SaddleTest.class);
+        if (saddleTest.isPresent())
+        {
+            return Optional.of(new TestMethodMetadata(saddleTest.get().loadPhase(), saddleTest.get().threadSafe(), false, 
+                saddleTest.get().maxAllocatedBytes(), saddleTest.get().maxCpuMillis()));
+        }
+        Optional<SaddleTestFactory> testFactory = AnnotationSupport.findAnnotation(method, SaddleTestFactory.class);
+        if (testFactory.isPresent())
+        {
+            return Optional.of(new TestMethodMetadata(testFactory.get().loadPhase(), testFactory.get().threadSafe(), false, 
+                testFactory.get().maxAllocatedBytes(), testFactory.get().maxCpuMillis()));
+        }
+        Optional<SaddleParameterizedTest> parameterizedTest = AnnotationSupport.findAnnotation(method, SaddleParameterizedTest.class);
+        if (parameterizedTest.isPresent())
+        {
+            return Optional.of(new TestMethodMetadata(parameterizedTest.get().loadPhase(), parameterizedTest.get().threadSafe(), false, 
+                parameterizedTest.get().maxAllocatedBytes(), parameterizedTest.get().maxCpuMillis()));
+        }
+        return AnnotationSupport.findAnnotation(method, SaddleBenchmark.class)
+            .map(benchmark -> new TestMethodMetadata(benchmark.loadPhase(), benchmark.threadSafe(), true, -1, -1));
+    }
+
+    /**
+     * @return the metadata of the nearest test method of {@code extensionContext} or its ancestors. 
+     * Dynamic tests have no test method of their own, so use their factory method's.
+     */
+    public static Optional<TestMethodMetadata> of(ExtensionContext extensionContext)
+    {
+        for (ExtensionContext context = extensionContext; context != null; context = context.getParent().orElse(null))
+        {
+            if (context.getTestMethod().isPresent())
+                return of(context.getTestMethod().get());
+        }
+        return Optional.empty();
+    }
+
+    public LoadPhase getLoadPhase()
+    {
+        return loadPhase;
+    }
+
+    public boolean isThreadSafe()
+    {
+        return threadSafe;
+    }
+
+    /**
+     * @return true if the test is a {@link SaddleBenchmark}, which has no resource budgets
+     */
+    public boolean isBenchmark()
+    {
+        return benchmark;
+    }
+
+    /**
+     * @return the maximum bytes the test may allocate, or a negative number to use the configured budget
+     */
+    public long getMaxAllocatedBytes()
+    {
+        return maxAllocatedBytes;
+    }
+
+    /**
+     * @return the maximum CPU time the test may use in milliseconds, or a negative number to use the configured budget
+     */
+    public long getMaxCpuMillis()
+    {
+        return maxCpuMillis;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("TestMethodMetadata [loadPhase=%s, threadSafe=%s, benchmark=%s, maxAllocatedBytes=%s, maxCpuMillis=%s]", 
+            loadPhase, threadSafe, benchmark, maxAllocatedBytes, maxCpuMillis);
+    }
+}
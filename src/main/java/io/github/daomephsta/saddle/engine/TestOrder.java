@@ -0,0 +1,29 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.util.OptionalLong;
+
+import org.junit.platform.engine.support.descriptor.MethodSource;
+
+/**
+ * The order {@link SaddleTestEngine} runs the classes and methods of a phase in, based on their previous results. 
+ * Classes are ordered by the combined results of their methods, and ties keep Jupiter's order.
+ */
+public enum TestOrder
+{
+    /** Jupiter's order, which {@code @TestMethodOrder} can change */
+    DEFAULT,
+    /** Tests that failed last time, then new tests, then the remaining tests from fastest to slowest */
+    FAILED_FIRST,
+    /** Slowest first, so that parallel runs don't end waiting on one slow test. New tests count as average. */
+    LONGEST_FIRST;
+
+    public interface History
+    {
+        /**
+         * @return the duration of the last run of {@code method}, or nothing if it hasn't run before
+         */
+        OptionalLong getDurationNanos(MethodSource method);
+
+        boolean hasFailed(MethodSource method);
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+
+/**
+ * Pins invocations belonging to tests that are not {@link SaddleTest#threadSafe() thread safe} 
+ * to the main thread during parallel execution, or to the server thread during tick scheduled phases. 
+ * Class level invocations, and every invocation of plain Jupiter tests, are always pinned. 
+ * Registered for the whole engine by {@link SaddleTestEngine}, so it intercepts constructors and lifecycle methods too.
+ */
+public class ThreadAffinityExtension implements InvocationInterceptor
+{
+    @Override
+    public <T> T interceptTestClassConstructor(Invocation<T> invocation, ReflectiveInvocationContext<Constructor<T>> invocationContext, 
+        ExtensionContext extensionContext) throws Throwable
+    {
+        return proceed(invocation, false);
+    }
+
+    @Override
+    public void interceptBeforeAllMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext, 
+        ExtensionContext extensionContext) throws Throwable
+    {
+        proceed(invocation, false);
+    }
+
+    @Override
+    public void interceptBeforeEachMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext, 
+        ExtensionContext extensionContext) throws Throwable
+    {
+        proceed(invocation, isThreadSafe(extensionContext));
+    }
+
+    @Override
+    public void interceptTestMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext, 
+        ExtensionContext extensionContext) throws Throwable
+    {
+        proceed(invocation, isThreadSafe(extensionContext));
+    }
+
+    @Override
+    public <T> T interceptTestFactoryMethod(Invocation<T> invocation, ReflectiveInvocationContext<Method> invocationContext, 
+        ExtensionContext extensionContext) throws Throwable
+    {
+        return proceed(invocation, isThreadSafe(extensionContext));
+    }
+
+    @Override
+    public void interceptTestTemplateMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext, 
+        ExtensionContext extensionContext) throws Throwable
+    {
+        proceed(invocation, isThreadSafe(extensionContext));
+    }
+
+    @Override
+    public void interceptDynamicTest(Invocation<Void> invocation, ExtensionContext extensionContext) throws Throwable
+    {
+        proceed(invocation, isThreadSafe(extensionContext));
+    }
+
+    @Override
+    public void interceptAfterEachMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext, 
+        ExtensionContext extensionContext) throws Throwable
+    {
+        proceed(invocation, isThreadSafe(extensionContext));
+    }
+
+    @Override
+    public void interceptAfterAllMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext, 
+        ExtensionContext extensionContext) throws Throwable
+    {
+        proceed(invocation, false);
+    }
+
+    private <T> T proceed(Invocation<T> invocation, boolean threadSafe) throws Throwable
+    {
+        return threadSafe ? invocation.proceed() : proceedPinned(invocation);
+    }
+
+    /**
+     * Proceeds with {@code invocation} on the thread that invocations are currently pinned to, if any
+     */
+    static <T> T proceedPinned(Invocation<T> invocation) throws Throwable
+    {
+        // Tick scheduled phases pin to the server thread, even if parallel execution is enabled
+        Optional<? extends PinnedInvocationExecutor> executor = TickScheduler.getActive();
+        if (!executor.isPresent())
+            executor = MainThreadExecutor.getActive();
+        return executor.isPresent() ? executor.get().call(invocation) : invocation.proceed();
+    }
+
+    private boolean isThreadSafe(ExtensionContext extensionContext)
+    {
+        return TestMethodMetadata.of(extensionContext)
+            .map(TestMethodMetadata::isThreadSafe)
+            .orElse(false);
+    }
+}
@@ -0,0 +1,118 @@
+package io.github.daomephsta.saddle.engine;
+
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.extension.InvocationInterceptor.Invocation;
+
+/**
+ * Spreads pinned invocations across ticks. Each call to {@link #tick()} runs queued invocations until 
+ * the per-tick budget is used up. At least one invocation runs per tick, so a single invocation 
+ * that takes longer than the budget overruns it instead of stalling the phase.
+ */
+public class TickScheduler implements PinnedInvocationExecutor
+{
+    private static volatile TickScheduler active;
+    
+    private final long budgetNanos;
+    private final Queue<PinnedInvocation<?>> invocations = new ConcurrentLinkedQueue<>();
+    private volatile Thread tickThread;
+    private volatile boolean cancelled;
+    private int busyTicks, 
+                overrunTicks;
+    private long invocationCount, 
+                 busyNanos, 
+                 totalOverrunNanos, 
+                 maxOverrunNanos;
+
+    public TickScheduler(long budget, TimeUnit unit)
+    {
+        this.budgetNanos = unit.toNanos(budget);
+    }
+
+    static Optional<TickScheduler> getActive()
+    {
+        return Optional.ofNullable(active);
+    }
+
+    public void activate()
+    {
+        active = this;
+    }
+
+    public void deactivate()
+    {
+        if (active == this)
+            active = null;
+    }
+
+    /**
+     * Runs queued invocations until the budget for this tick is used up. Must be called from the tick thread.
+     */
+    public void tick()
+    {
+        tickThread = Thread.currentThread();
+        long start = System.nanoTime(),
+             deadline = start + budgetNanos;
+        int ran = 0;
+        for (PinnedInvocation<?> invocation = invocations.poll(); invocation != null; invocation = invocations.poll())
+        {
+            invocation.run();
+            ran++;
+            if (System.nanoTime() >= deadline)
+                break;
+        }
+        if (ran == 0)
+            return;
+        long elapsed = System.nanoTime() - start;
+        busyTicks++;
+        invocationCount += ran;
+        busyNanos += elapsed;
+        if (elapsed > budgetNanos)
+        {
+            long overrun = elapsed - budgetNanos;
+            overrunTicks++;
+            totalOverrunNanos += overrun;
+            maxOverrunNanos = Math.max(maxOverrunNanos, overrun);
+        }
+    }
+
+    /**
+     * Fails all queued and future invocations, e.g. because the server is stopping and will not tick again
+     */
+    public void cancel(String reason)
+    {
+        cancelled = true;
+        IllegalStateException cancellation = new IllegalStateException(reason);
+        for (PinnedInvocation<?> invocation = invocations.poll(); invocation != null; invocation = invocations.poll())
+            invocation.cancel(cancellation);
+    }
+
+    @Override
+    public <T> T call(Invocation<T> invocation) throws Throwable
+    {
+        if (Thread.currentThread() == tickThread)
+            return invocation.proceed();
+        if (cancelled)
+            throw new IllegalStateException("Tick scheduler cancelled");
+        PinnedInvocation<T> pinned = new PinnedInvocation<>(invocation);
+        invocations.add(pinned);
+        // Catch invocations queued concurrently with cancellation
+        if (cancelled && invocations.remove(pinned))
+            pinned.cancel(new IllegalStateException("Tick scheduler cancelled"));
+        return pinned.await();
+    }
+
+    /**
+     * @return a summary of the ticks used and budget overruns. Must be called from the tick thread, or once ticking has stopped.
+     */
+    public String getStatistics()
+    {
+        return String.format("%d invocations over %d ticks, %.3f ms per tick on average with a budget of %.3f ms; "
+            + "%d ticks overran the budget, by %.3f ms at most and %.3f ms in total", 
+            invocationCount, busyTicks, busyTicks > 0 ? busyNanos / (busyTicks * 1_000_000.0) : 0.0, budgetNanos / 1_000_000.0,
+            overrunTicks, maxOverrunNanos / 1_000_000.0, totalOverrunNanos / 1_000_000.0);
+    }
+}
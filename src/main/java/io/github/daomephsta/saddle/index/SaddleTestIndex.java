@@ -0,0 +1,131 @@
+package io.github.daomephsta.saddle.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+
+import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+
+public class SaddleTestIndex
+{
+    public static final String RESOURCE = "META-INF/saddle/test-index.txt";
+    /** The load phase of indexed tests without a load phase, which run in every phase */
+    public static final String ALL_PHASES = "ALL";
+    
+    private final Map<LoadPhase, List<IndexedTest>> tests;
+    private final Set<String> classNames;
+    
+    private SaddleTestIndex(Map<LoadPhase, List<IndexedTest>> tests, Set<String> classNames)
+    {
+        this.tests = tests;
+        this.classNames = classNames;
+    }
+    
+    public static Optional<SaddleTestIndex> load(ClassLoader classLoader)
+    {
+        try
+        {
+            Enumeration<URL> indices = classLoader.getResources(RESOURCE);
+            if (!indices.hasMoreElements())
+                return Optional.empty();
+            Map<LoadPhase, List<IndexedTest>> tests = new EnumMap<>(LoadPhase.class);
+            Set<String> classNames = new HashSet<>();
+            for (LoadPhase loadPhase : LoadPhase.values())
+                tests.put(loadPhase, new ArrayList<>());
+            while (indices.hasMoreElements())
+            {
+                URL index = indices.nextElement();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(index.openStream(), StandardCharsets.UTF_8)))
+                {
+                    String line;
+                    while ((line = reader.readLine()) != null)
+                    {
+                        if (line.isEmpty())
+                            continue;
+                        String[] fields = line.split("\t", -1);
+                        if (fields.length != 4)
+                            throw new IllegalStateException("Malformed entry '" + line + "' in " + index);
+                        IndexedTest test = new IndexedTest(fields[1], fields[2], fields[3]);
+                        if (fields[0].equals(ALL_PHASES))
+                            tests.values().forEach(phaseTests -> phaseTests.add(test));
+                        else
+                            tests.get(LoadPhase.valueOf(fields[0])).add(test);
+                        classNames.add(test.getClassName());
+                    }
+                }
+            }
+            return Optional.of(new SaddleTestIndex(tests, classNames));
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Failed to load saddle test index", e);
+        }
+    }
+    
+    public List<IndexedTest> getTests(LoadPhase loadPhase)
+    {
+        return Collections.unmodifiableList(tests.get(loadPhase));
+    }
+
+    public int size()
+    {
+        return tests.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * @return true if any test of {@code className}, in any phase, is indexed
+     */
+    public boolean containsClass(String className)
+    {
+        return classNames.contains(className);
+    }
+
+    public static class IndexedTest
+    {
+        private final String className,
+                             methodName,
+                             parameterTypes;
+
+        IndexedTest(String className, String methodName, String parameterTypes)
+        {
+            this.className = className;
+            this.methodName = methodName;
+            this.parameterTypes = parameterTypes;
+        }
+        
+        public String getClassName()
+        {
+            return className;
+        }
+        
+        public String getMethodName()
+        {
+            return methodName;
+        }
+        
+        public DiscoverySelector toSelector()
+        {
+            return DiscoverySelectors.selectMethod(className, methodName, parameterTypes);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s#%s(%s)", className, methodName, parameterTypes);
+        }
+    }
+}
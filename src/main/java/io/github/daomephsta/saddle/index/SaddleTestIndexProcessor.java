@@ -0,0 +1,228 @@
+package io.github.daomephsta.saddle.index;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Writes an index of every test method of each concrete class to {@value SaddleTestIndex#RESOURCE}, 
+ * so that Saddle can select test methods directly instead of scanning packages. Inherited test methods, 
+ * including default methods of interfaces, are indexed under each concrete subclass, and Jupiter test methods without a load phase under 
+ * {@value SaddleTestIndex#ALL_PHASES}, as they run in every phase.
+ */
+@SupportedAnnotationTypes("*")
+public class SaddleTestIndexProcessor extends AbstractProcessor
+{
+    private static final Set<String> PHASED_ANNOTATIONS = new HashSet<>(Arrays.asList(
+        "io.github.daomephsta.saddle.engine.SaddleTest", 
+        "io.github.daomephsta.saddle.engine.SaddleBenchmark", 
+        "io.github.daomephsta.saddle.engine.SaddleTestFactory", 
+        "io.github.daomephsta.saddle.engine.SaddleParameterizedTest"));
+    // Jupiter's testable annotations, which the phased annotations and e.g. @ParameterizedTest are meta-annotated with
+    private static final Set<String> TESTABLE_ANNOTATIONS = new HashSet<>(Arrays.asList(
+        "org.junit.jupiter.api.Test", 
+        "org.junit.jupiter.api.TestFactory", 
+        "org.junit.jupiter.api.TestTemplate"));
+    
+    private final Set<String> entries = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+    {
+        for (Element rootElement : roundEnv.getRootElements())
+        {
+            if (rootElement instanceof TypeElement)
+                indexClass((TypeElement) rootElement);
+        }
+        if (roundEnv.processingOver() && !entries.isEmpty())
+            writeIndex();
+        return false;
+    }
+
+    private void indexClass(TypeElement testClass)
+    {
+        for (Element member : testClass.getEnclosedElements())
+        {
+            if (member instanceof TypeElement)
+                indexClass((TypeElement) member);
+        }
+        // Like Jupiter, only concrete classes are test classes
+        if (testClass.getKind() != ElementKind.CLASS || testClass.getModifiers().contains(Modifier.ABSTRACT))
+            return;
+        Set<String> signatures = new HashSet<>();
+        Deque<TypeElement> interfaces = new ArrayDeque<>();
+        // Subclasses first, so that overriding methods hide the methods they override
+        for (TypeElement type = testClass; type != null; type = getSuperclass(type))
+        {
+            indexMethods(testClass, type, signatures);
+            addInterfaces(type, interfaces);
+        }
+        // Then interfaces, as methods of classes override their default methods
+        Set<TypeElement> visitedInterfaces = new HashSet<>();
+        while (!interfaces.isEmpty())
+        {
+            TypeElement type = interfaces.remove();
+            if (!visitedInterfaces.add(type))
+                continue;
+            indexMethods(testClass, type, signatures);
+            addInterfaces(type, interfaces);
+        }
+    }
+
+    private void addInterfaces(TypeElement type, Deque<TypeElement> interfaces)
+    {
+        for (TypeMirror superinterface : type.getInterfaces())
+        {
+            if (superinterface.getKind() == TypeKind.DECLARED)
+                interfaces.add((TypeElement) ((DeclaredType) superinterface).asElement());
+        }
+    }
+
+    private TypeElement getSuperclass(TypeElement type)
+    {
+        TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+    }
+
+    private void indexMethods(TypeElement testClass, TypeElement declaringClass, Set<String> signatures)
+    {
+        for (Element member : declaringClass.getEnclosedElements())
+        {
+            if (member.getKind() != ElementKind.METHOD)
+                continue;
+            ExecutableElement method = (ExecutableElement) member;
+            String parameterTypes = method.getParameters().stream()
+                .map(parameter -> getTypeName(parameter.asType()))
+                .collect(Collectors.joining(","));
+            if (!signatures.add(method.getSimpleName() + "(" + parameterTypes + ")"))
+                continue;
+            Set<Modifier> modifiers = method.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.ABSTRACT))
+                continue;
+            String loadPhase = getLoadPhase(method);
+            if (loadPhase == null && isTestable(method, new HashSet<>()))
+                loadPhase = SaddleTestIndex.ALL_PHASES;
+            if (loadPhase != null)
+            {
+                entries.add(String.join("\t", loadPhase, 
+                    processingEnv.getElementUtils().getBinaryName(testClass), 
+                    method.getSimpleName(), parameterTypes));
+            }
+        }
+    }
+
+    /**
+     * @return the load phase of a phased annotation on {@code element}, or on one of its annotations, or null if there is none
+     */
+    private String getLoadPhase(Element element)
+    {
+        String loadPhase = getDirectLoadPhase(element);
+        if (loadPhase != null)
+            return loadPhase;
+        for (AnnotationMirror annotation : element.getAnnotationMirrors())
+        {
+            loadPhase = getDirectLoadPhase(annotation.getAnnotationType().asElement());
+            if (loadPhase != null)
+                return loadPhase;
+        }
+        return null;
+    }
+
+    private String getDirectLoadPhase(Element element)
+    {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors())
+        {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (!PHASED_ANNOTATIONS.contains(annotationType.getQualifiedName().toString()))
+                continue;
+            for (ExecutableElement attribute : annotation.getElementValues().keySet())
+            {
+                if (attribute.getSimpleName().contentEquals("loadPhase"))
+                {
+                    AnnotationValue value = annotation.getElementValues().get(attribute);
+                    return ((VariableElement) value.getValue()).getSimpleName().toString();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true if {@code element} is annotated, directly or through meta-annotations, with a Jupiter testable annotation
+     */
+    private boolean isTestable(Element element, Set<String> visitedAnnotations)
+    {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors())
+        {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            String annotationName = annotationType.getQualifiedName().toString();
+            if (TESTABLE_ANNOTATIONS.contains(annotationName))
+                return true;
+            // Annotations such as @Retention annotate themselves
+            if (visitedAnnotations.add(annotationName) && isTestable(annotationType, visitedAnnotations))
+                return true;
+        }
+        return false;
+    }
+
+    private String getTypeName(TypeMirror type)
+    {
+        TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+        if (erasure.getKind() == TypeKind.ARRAY)
+            return getTypeName(((ArrayType) erasure).getComponentType()) + "[]";
+        if (erasure.getKind() == TypeKind.DECLARED)
+        {
+            TypeElement typeElement = (TypeElement) ((DeclaredType) erasure).asElement();
+            return processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+        }
+        return erasure.toString();
+    }
+
+    private void writeIndex()
+    {
+        try
+        {
+            FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SaddleTestIndex.RESOURCE);
+            try (PrintWriter writer = new PrintWriter(index.openWriter()))
+            {
+                entries.forEach(writer::println);
+            }
+        }
+        catch (IOException e)
+        {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write Saddle test index: " + e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.daomephsta.saddle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.junit.platform.launcher.core.LauncherConfig;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import io.github.daomephsta.saddle.engine.SaddleTest;
+import io.github.daomephsta.saddle.engine.SaddleTest.LoadPhase;
+import io.github.daomephsta.saddle.engine.SaddleTestEngine;
+
+class ShardFilterTest
+{
+    private static final List<Class<?>> TEST_CLASSES = Arrays.asList(ShardedA.class, ShardedB.class, ShardedC.class, 
+        ShardedD.class, ShardedE.class, ShardedF.class, ShardedG.class);
+
+    @Test
+    void shardsWithDifferentHistoriesPartitionTheClasses()
+    {
+        int shardCount = 3;
+        Map<String, Long> weights = new HashMap<>();
+        weights.put(ShardedA.class.getName(), 500L);
+        weights.put(ShardedB.class.getName(), 300L);
+        weights.put(ShardedC.class.getName(), 200L);
+        Set<String> allClasses = TEST_CLASSES.stream().map(Class::getName).collect(Collectors.toSet()),
+                    assignedClasses = new HashSet<>();
+        int assignmentCount = 0;
+        for (int index = 1; index <= shardCount; index++)
+        {
+            // Each shard's history removes a different class before sharding, the worst case for the assignment
+            String passedLastTime = TEST_CLASSES.get(index).getName();
+            PostDiscoveryFilter historyFilter = descriptor -> descriptor.getSource()
+                .filter(source -> source instanceof MethodSource && ((MethodSource) source).getClassName().equals(passedLastTime))
+                .map(source -> FilterResult.excluded("Passed last time"))
+                .orElse(FilterResult.included("Not run before"));
+            ShardFilter shardFilter = new ShardFilter(new Shard(index, shardCount), weights);
+            TestPlan testPlan = discover(shardFilter, historyFilter);
+
+            assertEquals(TEST_CLASSES.size(), shardFilter.getClassCount());
+            for (TestIdentifier test : testPlan.getDescendants(testPlan.getRoots().iterator().next()))
+            {
+                if (test.getSource().filter(MethodSource.class::isInstance).isPresent())
+                {
+                    String className = ((MethodSource) test.getSource().get()).getClassName();
+                    assertTrue(shardFilter.getShardClasses().contains(className), className + " ran outside its shard");
+                }
+            }
+            assignedClasses.addAll(shardFilter.getShardClasses());
+            assignmentCount += shardFilter.getShardClasses().size();
+        }
+        assertEquals(allClasses, assignedClasses, "Every class is assigned to a shard");
+        assertEquals(allClasses.size(), assignmentCount, "No class is assigned to several shards");
+    }
+
+    private static TestPlan discover(ShardFilter shardFilter, PostDiscoveryFilter historyFilter)
+    {
+        SaddleTestEngine engine = new SaddleTestEngine(LoadPhase.INIT);
+        engine.setDiscoveryListener(shardFilter::assignClasses);
+        Launcher launcher = LauncherFactory.create(LauncherConfig.builder()
+            .enableTestEngineAutoRegistration(false)
+            .addTestEngines(engine)
+            .build());
+        return launcher.discover(LauncherDiscoveryRequestBuilder.request()
+            .selectors(TEST_CLASSES.stream().map(DiscoverySelectors::selectClass).collect(Collectors.toList()))
+            .filters(historyFilter, shardFilter)
+            .build());
+    }
+}
+
+// Top level, as nested classes are always sharded with their outermost class
+class ShardedA
+{
+    @SaddleTest(loadPhase = LoadPhase.INIT)
+    void test() {}
+}
+
+class ShardedB
+{
+    @SaddleTest(loadPhase = LoadPhase.INIT)
+    void test() {}
+}
+
+class ShardedC
+{
+    @SaddleTest(loadPhase = LoadPhase.INIT)
+    void test() {}
+}
+
+class ShardedD
+{
+    @SaddleTest(loadPhase = LoadPhase.INIT)
+    void test() {}
+}
+
+class ShardedE
+{
+    @SaddleTest(loadPhase = LoadPhase.INIT)
+    void test() {}
+}
+
+class ShardedF
+{
+    @SaddleTest(loadPhase = LoadPhase.INIT)
+    void test() {}
+}
+
+class ShardedG
+{
+    @SaddleTest(loadPhase = LoadPhase.INIT)
+    void test() {}
+}